@@ -0,0 +1,61 @@
+package com.mindex.challenge;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.EmployeeRepositoryImpl;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoBackend;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDbFactory;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import java.net.InetSocketAddress;
+
+/**
+ * In-memory Mongo server with a client and template connected to it over loopback, as set up by MongoConfig,
+ * for benchmarks that need real repositories without starting the application.
+ */
+public final class EmbeddedMongo implements AutoCloseable {
+
+    private final MongoServer mongoServer;
+    private final MongoClient mongoClient;
+    private final MongoTemplate mongoTemplate;
+
+    public EmbeddedMongo() {
+        this(new MemoryBackend());
+    }
+
+    public EmbeddedMongo(MongoBackend backend) {
+        mongoServer = new MongoServer(backend);
+        InetSocketAddress address = mongoServer.bind();
+        mongoClient = MongoClients.create("mongodb:/" + address);
+        mongoTemplate = new MongoTemplate(new SimpleMongoClientDbFactory(mongoClient, "benchmark"));
+    }
+
+    public MongoTemplate getMongoTemplate() {
+        return mongoTemplate;
+    }
+
+    public <T> T getRepository(Class<T> repositoryInterface) {
+        return new MongoRepositoryFactory(mongoTemplate).getRepository(repositoryInterface);
+    }
+
+    /**
+     * @return Employee repository, including the custom fragment that Spring would otherwise wire in
+     */
+    public EmployeeRepository getEmployeeRepository() {
+        return new MongoRepositoryFactory(mongoTemplate).getRepository(
+            EmployeeRepository.class,
+            RepositoryFragments.just(new EmployeeRepositoryImpl(mongoTemplate))
+        );
+    }
+
+    @Override
+    public void close() {
+        mongoClient.close();
+        mongoServer.shutdown();
+    }
+}
@@ -0,0 +1,48 @@
+package com.mindex.challenge;
+
+import com.mindex.challenge.data.Employee;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic employee records for benchmarks.
+ */
+public final class SyntheticEmployees {
+
+    private SyntheticEmployees() {
+    }
+
+    /**
+     * Balanced org where employee i manages employees fanOut * i + 1 to fanOut * i + fanOut.
+     * Employee IDs are the string form of their index, so employee "0" is the root.
+     * @param size Number of employees
+     * @param fanOut Direct reports per manager
+     * @return Employees
+     */
+    public static List<Employee> balanced(int size, int fanOut) {
+        List<Employee> employees = new ArrayList<Employee>(size);
+        for (int i = 0; i < size; i++) {
+            Employee employee = employee(Integer.toString(i));
+            List<Employee> directReports = new ArrayList<Employee>(fanOut);
+            for (int r = fanOut * i + 1; r <= fanOut * i + fanOut && r < size; r++) {
+                Employee dReport = new Employee();
+                dReport.setEmployeeId(Integer.toString(r));
+                directReports.add(dReport);
+            }
+            employee.setDirectReports(directReports);
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    private static Employee employee(String employeeId) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        employee.setFirstName("First" + employeeId);
+        employee.setLastName("Last" + employeeId);
+        employee.setPosition("Developer");
+        employee.setDepartment("Engineering");
+        return employee;
+    }
+}
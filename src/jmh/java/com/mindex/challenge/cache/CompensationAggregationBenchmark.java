@@ -0,0 +1,111 @@
+package com.mindex.challenge.cache;
+
+import com.mindex.challenge.EmbeddedMongo;
+import com.mindex.challenge.data.CompensationRecord;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Total payroll as of a date, the compensation in effect for every employee, from the in-memory
+ * {@link CompensationHistory} of each employee versus a sort and group aggregation in the embedded Mongo server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CompensationAggregationBenchmark {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    private static final long START = 1577836800000L; // 2020-01-01
+
+    @Param({"1000", "10000"})
+    public int employees;
+
+    @Param({"1", "10"})
+    public int compensationsPerEmployee;
+
+    private Map<String, CompensationHistory> histories;
+    private EmbeddedMongo mongo;
+    private Aggregation payrollAsOf;
+    private Date asOf;
+
+    @Setup
+    public void setup() {
+        List<CompensationRecord> records = new ArrayList<CompensationRecord>(employees * compensationsPerEmployee);
+        for (int e = 0; e < employees; e++) {
+            for (int c = 0; c < compensationsPerEmployee; c++) {
+                records.add(new CompensationRecord(Integer.toString(e), 5000000L + c * 100000L, new Date(START + c * 30 * DAY)));
+            }
+        }
+        // Half way through every history
+        asOf = new Date(START + (compensationsPerEmployee / 2) * 30 * DAY);
+
+        histories = new HashMap<String, CompensationHistory>();
+        for (CompensationRecord record : records) {
+            histories.merge(record.getEmployeeId(), CompensationHistory.EMPTY.with(record), (history, added) -> history.with(record));
+        }
+
+        mongo = new EmbeddedMongo();
+        mongo.getMongoTemplate().insert(records, CompensationRecord.class);
+        payrollAsOf = newAggregation(
+            match(where("effectiveDate").lte(asOf)),
+            sort(Sort.Direction.ASC, "employeeId").and(Sort.Direction.DESC, "effectiveDate"),
+            group("employeeId").first("salaryCents").as("salaryCents")
+        );
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongo.close();
+    }
+
+    @Benchmark
+    public long histories() {
+        long total = 0;
+        for (CompensationHistory history : histories.values()) {
+            CompensationRecord record = history.asOf(asOf);
+            if (record != null) {
+                total += record.getSalaryCents();
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long mongoAggregation() {
+        long total = 0;
+        for (Document document : mongo.getMongoTemplate().aggregate(payrollAsOf, CompensationRecord.class, Document.class)) {
+            total += ((Number) document.get("salaryCents")).longValue();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,94 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.ChallengeApplication;
+import com.mindex.challenge.data.ReportingStructure;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Request throughput of the servlet stack with 10k requests in flight at once, each on its own connection,
+ * with requests handled by Tomcat's worker pool or by virtual threads.
+ * Reports are counted with the BATCHED strategy so each request blocks on repository lookups,
+ * fanned out on the lookup pool.
+ * The virtual mode is experimental and needs a JDK 21 runtime. Tomcat 9 pins virtual request threads,
+ * so it is not expected to beat the platform mode, see ExecutorConfig. The client and server run in the same JVM, which needs a file descriptor
+ * limit above twice the number of connections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConcurrentConnectionsBenchmark {
+
+    private static final int CONNECTIONS = 10000;
+    private static final String EMPLOYEE_ID = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private ConnectionProvider connectionProvider;
+    private WebClient webClient;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(ChallengeApplication.class)
+            .properties(
+                "server.port=0",
+                "server.tomcat.max-connections=" + CONNECTIONS,
+                "server.tomcat.accept-count=" + CONNECTIONS,
+                "executor.mode=" + mode,
+                "reporting.strategy=BATCHED",
+                "logging.level.com.mindex=INFO"
+            )
+            .run();
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        connectionProvider = ConnectionProvider.fixed("benchmark", CONNECTIONS);
+        webClient = WebClient.builder()
+            .baseUrl("http://localhost:" + port)
+            .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+            .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionProvider.dispose();
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONNECTIONS)
+    public long readReportingStructures() {
+        return Flux.range(0, CONNECTIONS)
+            .flatMap(i -> webClient.get().uri("/reportingStructure/{id}", EMPLOYEE_ID)
+                .retrieve()
+                .bodyToMono(ReportingStructure.class), CONNECTIONS)
+            .count()
+            .block();
+    }
+}
@@ -0,0 +1,84 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.ChallengeApplication;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Request latency distribution of the servlet and reactive web stacks under concurrent load.
+ * Each stack runs as a full application on a random port, seeded with the default employees,
+ * and is called over HTTP by 64 concurrent client threads.
+ * The servlet stack counts reports from the in-memory org graph, while the reactive stack reads every level.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Threads(64)
+@Fork(1)
+public class WebStackBenchmark {
+
+    private static final String EMPLOYEE_ID = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+
+    @Param({"servlet", "reactive"})
+    public String stack;
+
+    private ConfigurableApplicationContext context;
+    private WebClient webClient;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(ChallengeApplication.class)
+            .properties(
+                "server.port=0",
+                "spring.main.web-application-type=" + stack,
+                "logging.level.com.mindex=INFO"
+            )
+            .run();
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        webClient = WebClient.create("http://localhost:" + port);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee readEmployee() {
+        return webClient.get().uri("/employee/{id}", EMPLOYEE_ID)
+            .retrieve()
+            .bodyToMono(Employee.class)
+            .block();
+    }
+
+    @Benchmark
+    public ReportingStructure readReportingStructure() {
+        return webClient.get().uri("/reportingStructure/{id}", EMPLOYEE_ID)
+            .retrieve()
+            .bodyToMono(ReportingStructure.class)
+            .block();
+    }
+}
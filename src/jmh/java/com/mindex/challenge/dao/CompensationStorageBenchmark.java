@@ -0,0 +1,126 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.EmbeddedMongo;
+import com.mindex.challenge.SyntheticEmployees;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationRecord;
+import com.mindex.challenge.data.Employee;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Compares the previous compensation format, with the whole employee embedded, against {@link CompensationRecord}.
+ * Reports write and latest-compensation read throughput, and the BSON size of each written document
+ * as the documentBytes secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CompensationStorageBenchmark {
+
+    private static final String EMBEDDED_COLLECTION = "compensationEmbedded";
+    private static final int EMPLOYEES = 10000;
+
+    @Param({"EMBEDDED", "COMPACT"})
+    public String format;
+
+    private EmbeddedMongo mongo;
+    private MongoTemplate mongoTemplate;
+    private List<Employee> employees;
+
+    /**
+     * Bytes written per operation, reported as a secondary result.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class DocumentSize {
+        public long documentBytes;
+    }
+
+    @Setup
+    public void setup() {
+        mongo = new EmbeddedMongo();
+        mongoTemplate = mongo.getMongoTemplate();
+        employees = SyntheticEmployees.balanced(EMPLOYEES, 8);
+        mongoTemplate.insertAll(employees);
+        for (Employee employee : employees) {
+            write(employee);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongo.close();
+    }
+
+    @Benchmark
+    public Object write(DocumentSize documentSize) {
+        Object written = write(randomEmployee());
+        documentSize.documentBytes += bsonSize(written);
+        return written;
+    }
+
+    @Benchmark
+    public Object readLatest() {
+        String employeeId = randomEmployee().getEmployeeId();
+        if ("EMBEDDED".equals(format)) {
+            Query query = new Query(where("employee._id").is(employeeId))
+                .with(Sort.by(Sort.Direction.DESC, "effectiveDate"))
+                .limit(1);
+            return mongoTemplate.findOne(query, Compensation.class, EMBEDDED_COLLECTION);
+        }
+        Query query = new Query(where("employeeId").is(employeeId))
+            .with(Sort.by(Sort.Direction.DESC, "effectiveDate"))
+            .limit(1);
+        return mongoTemplate.findOne(query, CompensationRecord.class);
+    }
+
+    private Object write(Employee employee) {
+        Date effectiveDate = new Date(ThreadLocalRandom.current().nextLong(1_000_000_000_000L, 2_000_000_000_000L));
+        if ("EMBEDDED".equals(format)) {
+            Compensation compensation = new Compensation();
+            compensation.setEmployee(employee);
+            compensation.setSalary(125000.5f);
+            compensation.setEffectiveDate(effectiveDate);
+            return mongoTemplate.insert(compensation, EMBEDDED_COLLECTION);
+        }
+        return mongoTemplate.insert(new CompensationRecord(employee.getEmployeeId(), 12500050L, effectiveDate));
+    }
+
+    private int bsonSize(Object written) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(written, document);
+        return new RawBsonDocument(document, new DocumentCodec()).getByteBuffer().remaining();
+    }
+
+    private Employee randomEmployee() {
+        return employees.get(ThreadLocalRandom.current().nextInt(employees.size()));
+    }
+}
@@ -0,0 +1,103 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.EmbeddedMongo;
+import com.mindex.challenge.SyntheticEmployees;
+import com.mindex.challenge.data.Employee;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency distribution of the repository calls made per request, against the embedded Mongo server over
+ * loopback and against the in-memory repository selected by datastore.mode=in-memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DatastoreLatencyBenchmark {
+
+    private static final int INSERT_BATCH_SIZE = 10000;
+    private static final int LOOKUP_BATCH_SIZE = 10;
+
+    public enum Datastore {
+        MONGO,
+        IN_MEMORY
+    }
+
+    @Param({"MONGO", "IN_MEMORY"})
+    public Datastore datastore;
+
+    @Param({"1000", "100000"})
+    public int employees;
+
+    private EmbeddedMongo mongo;
+    private EmployeeRepository employeeRepository;
+
+    @Setup
+    public void setup() {
+        if (datastore == Datastore.MONGO) {
+            mongo = new EmbeddedMongo();
+            employeeRepository = mongo.getEmployeeRepository();
+        } else {
+            employeeRepository = new InMemoryEmployeeRepository();
+        }
+
+        List<Employee> all = SyntheticEmployees.balanced(employees, 8);
+        for (int from = 0; from < all.size(); from += INSERT_BATCH_SIZE) {
+            employeeRepository.insert(all.subList(from, Math.min(from + INSERT_BATCH_SIZE, all.size())));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (mongo != null) {
+            mongo.close();
+        }
+    }
+
+    @Benchmark
+    public Employee findByEmployeeId() {
+        return employeeRepository.findByEmployeeId(randomId());
+    }
+
+    @Benchmark
+    public List<Employee> findByEmployeeIdIn() {
+        List<String> ids = new ArrayList<String>(LOOKUP_BATCH_SIZE);
+        for (int i = 0; i < LOOKUP_BATCH_SIZE; i++) {
+            ids.add(randomId());
+        }
+        return employeeRepository.findByEmployeeIdIn(ids);
+    }
+
+    @Benchmark
+    public Employee save() {
+        String employeeId = randomId();
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        employee.setFirstName("First" + employeeId);
+        employee.setLastName("Last" + employeeId);
+        return employeeRepository.save(employee);
+    }
+
+    private String randomId() {
+        return Integer.toString(ThreadLocalRandom.current().nextInt(employees));
+    }
+}
@@ -0,0 +1,109 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.EmbeddedMongo;
+import com.mindex.challenge.data.Employee;
+import de.bwaldvogel.mongo.backend.h2.H2Backend;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.h2.mvstore.MVStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of concurrent employee creates against the memory and H2 backends,
+ * committing after every write versus once per group through {@link GroupCommitWriter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Threads(8)
+@Fork(1)
+public class DurableWriteBenchmark {
+
+    public enum Backend {
+        MEMORY,
+        H2
+    }
+
+    public enum Commit {
+        PER_WRITE,
+        GROUP
+    }
+
+    @Param({"MEMORY", "H2"})
+    public Backend backend;
+
+    @Param({"PER_WRITE", "GROUP"})
+    public Commit commit;
+
+    private Path file;
+    private MVStore mvStore;
+    private EmbeddedMongo mongo;
+    private EmployeeRepository employeeRepository;
+    private GroupCommitWriter groupCommitWriter;
+
+    @Setup
+    public void setup() throws IOException {
+        if (backend == Backend.H2) {
+            file = Files.createTempFile("durable-write-benchmark", ".mv");
+            mvStore = new MVStore.Builder().fileName(file.toString()).open();
+            mongo = new EmbeddedMongo(new H2Backend(mvStore));
+        } else {
+            mongo = new EmbeddedMongo(new MemoryBackend());
+        }
+        employeeRepository = mongo.getEmployeeRepository();
+
+        groupCommitWriter = new GroupCommitWriter(employeeRepository, mongo.getRepository(CompensationRepository.class),
+            this::commit, 1000);
+        groupCommitWriter.start();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        groupCommitWriter.stop();
+        mongo.close();
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public Employee create() {
+        Employee employee = new Employee();
+        employee.setEmployeeId(UUID.randomUUID().toString());
+        employee.setFirstName("First");
+        employee.setLastName("Last");
+
+        if (commit == Commit.GROUP) {
+            return groupCommitWriter.insert(employee);
+        }
+        employeeRepository.insert(employee);
+        commit();
+        return employee;
+    }
+
+    private void commit() {
+        if (mvStore != null) {
+            mvStore.commit();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.EmbeddedMongo;
+import com.mindex.challenge.SyntheticEmployees;
+import com.mindex.challenge.data.Employee;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Latency of the single employee lookup behind /employee/{id} as the collection grows.
+ * findByEmployeeId is served by the _id index; the same lookup on an unindexed field shows the
+ * collection scan it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EmployeeLookupBenchmark {
+
+    private static final int INSERT_BATCH_SIZE = 10000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int employees;
+
+    private EmbeddedMongo mongo;
+    private MongoTemplate mongoTemplate;
+    private EmployeeRepository employeeRepository;
+
+    @Setup
+    public void setup() {
+        mongo = new EmbeddedMongo();
+        mongoTemplate = mongo.getMongoTemplate();
+        employeeRepository = mongo.getEmployeeRepository();
+
+        List<Employee> all = SyntheticEmployees.balanced(employees, 8);
+        for (int from = 0; from < all.size(); from += INSERT_BATCH_SIZE) {
+            employeeRepository.insert(all.subList(from, Math.min(from + INSERT_BATCH_SIZE, all.size())));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongo.close();
+    }
+
+    @Benchmark
+    public Employee findByEmployeeId() {
+        return employeeRepository.findByEmployeeId(randomId());
+    }
+
+    @Benchmark
+    public Employee findByUnindexedField() {
+        return mongoTemplate.findOne(query(where("firstName").is("First" + randomId())), Employee.class);
+    }
+
+    private String randomId() {
+        return Integer.toString(ThreadLocalRandom.current().nextInt(employees));
+    }
+}
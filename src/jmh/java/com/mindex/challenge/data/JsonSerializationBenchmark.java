@@ -0,0 +1,88 @@
+package com.mindex.challenge.data;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Jackson serialization of the response bodies, with the object mapper configured the way Spring Boot does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"0", "8", "100"})
+    public int directReports;
+
+    private ObjectWriter employeeWriter;
+    private ObjectWriter reportingStructureWriter;
+    private ObjectReader employeeReader;
+
+    private Employee employee;
+    private ReportingStructure reportingStructure;
+    private byte[] employeeJson;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        employeeWriter = objectMapper.writerFor(Employee.class);
+        reportingStructureWriter = objectMapper.writerFor(ReportingStructure.class);
+        employeeReader = objectMapper.readerFor(Employee.class);
+
+        employee = new Employee();
+        employee.setEmployeeId("16a596ae-edd3-4847-99fe-c4518e82c86f");
+        employee.setFirstName("John");
+        employee.setLastName("Lennon");
+        employee.setPosition("Development Manager");
+        employee.setDepartment("Engineering");
+        List<Employee> reports = new ArrayList<Employee>(directReports);
+        for (int i = 0; i < directReports; i++) {
+            Employee dReport = new Employee();
+            dReport.setEmployeeId("report-" + i);
+            reports.add(dReport);
+        }
+        employee.setDirectReports(reports);
+
+        reportingStructure = new ReportingStructure(employee);
+        reportingStructure.setNumberOfReports(directReports);
+
+        employeeJson = employeeWriter.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public byte[] writeEmployee() throws IOException {
+        return employeeWriter.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public byte[] writeReportingStructure() throws IOException {
+        return reportingStructureWriter.writeValueAsBytes(reportingStructure);
+    }
+
+    @Benchmark
+    public Employee readEmployee() throws IOException {
+        return employeeReader.readValue(employeeJson);
+    }
+}
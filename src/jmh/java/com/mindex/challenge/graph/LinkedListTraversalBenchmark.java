@@ -0,0 +1,62 @@
+package com.mindex.challenge.graph;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Baseline for {@link ReportTraversalBenchmark}: the original countReports search, with a
+ * LinkedList queue and LinkedList.contains for visited tracking, over string IDs.
+ * Visited tracking is quadratic, so sizes stop well short of the 1M employee case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class LinkedListTraversalBenchmark {
+
+    @Param({"1000", "10000"})
+    public int employees;
+
+    private Map<String, List<String>> reportsById;
+
+    @Setup
+    public void setup() {
+        reportsById = SyntheticOrgs.byId(SyntheticOrgs.balanced(employees, 8), SyntheticOrgs.ids(employees));
+    }
+
+    @Benchmark
+    public int linkedListTraversal() {
+        LinkedList<String> visited = new LinkedList<String>();
+        LinkedList<String> queue = new LinkedList<String>();
+
+        visited.add("0");
+        queue.add("0");
+
+        while (queue.size() != 0) {
+            String eId = queue.poll();
+            for (String dReport : reportsById.get(eId)) {
+                if (!visited.contains(dReport)) {
+                    visited.add(dReport);
+                    queue.add(dReport);
+                }
+            }
+        }
+        return visited.size() - 1;
+    }
+}
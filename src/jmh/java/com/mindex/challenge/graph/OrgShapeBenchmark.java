@@ -0,0 +1,105 @@
+package com.mindex.challenge.graph;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Counting every report of the root, sequentially and with fork/join, across org shapes that stress
+ * different parts of the traversal: one huge reports array (flat), maximum depth (chain),
+ * wide levels (balanced) and loops back to the root (cyclic).
+ * Sizes start at the default reporting.parallel.threshold, the smallest graph OrgGraph traverses in parallel,
+ * and the parallel benchmark reports the number of tasks forked per traversal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OrgShapeBenchmark {
+
+    private static final int FAN_OUT = 8;
+
+    public enum Shape {
+        FLAT,
+        CHAIN,
+        BALANCED,
+        CYCLIC
+    }
+
+    @Param({"FLAT", "CHAIN", "BALANCED", "CYCLIC"})
+    public Shape shape;
+
+    @Param({"4096", "100000", "1000000"})
+    public int employees;
+
+    private int[][] reports;
+    private BitSet known;
+    private String[] ids;
+    private ReportTraversal traversal;
+
+    @Setup
+    public void setup() {
+        switch (shape) {
+            case FLAT:
+                reports = SyntheticOrgs.flat(employees);
+                break;
+            case CHAIN:
+                reports = SyntheticOrgs.chain(employees);
+                break;
+            case CYCLIC:
+                reports = SyntheticOrgs.cyclic(employees, FAN_OUT);
+                break;
+            default:
+                reports = SyntheticOrgs.balanced(employees, FAN_OUT);
+        }
+        known = SyntheticOrgs.allKnown(employees);
+        ids = SyntheticOrgs.ids(employees);
+        traversal = new ReportTraversal();
+    }
+
+    @Benchmark
+    public int sequential() {
+        return traversal.count(0, reports, known, ids, employees);
+    }
+
+    @Benchmark
+    public int parallel(ForkCounters counters) {
+        ParallelReportTraversal parallel = new ParallelReportTraversal(reports, known, ids, employees);
+        int count = parallel.count(0, ForkJoinPool.commonPool());
+        counters.forks += parallel.forks();
+        counters.traversals++;
+        return count;
+    }
+
+    /**
+     * Forks per traversal is forks divided by traversals.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ForkCounters {
+        public long forks;
+        public long traversals;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            forks = 0;
+            traversals = 0;
+        }
+    }
+}
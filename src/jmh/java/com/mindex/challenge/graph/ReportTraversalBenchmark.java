@@ -0,0 +1,72 @@
+package com.mindex.challenge.graph;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the bitset/int-array {@link ReportTraversal} against a boxed HashSet/ArrayDeque
+ * breadth-first search over the same int-indexed graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReportTraversalBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int employees;
+
+    private int[][] reports;
+    private BitSet known;
+    private String[] ids;
+    private ReportTraversal traversal;
+
+    @Setup
+    public void setup() {
+        reports = SyntheticOrgs.balanced(employees, 8);
+        known = SyntheticOrgs.allKnown(employees);
+        ids = SyntheticOrgs.ids(employees);
+        traversal = new ReportTraversal();
+    }
+
+    @Benchmark
+    public int bitsetTraversal() {
+        return traversal.count(0, reports, known, ids, employees);
+    }
+
+    @Benchmark
+    public int hashSetTraversal() {
+        Set<Integer> visited = new HashSet<Integer>();
+        ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+
+        visited.add(0);
+        queue.add(0);
+
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int dReport : reports[node]) {
+                if (visited.add(dReport)) {
+                    queue.add(dReport);
+                }
+            }
+        }
+        return visited.size() - 1;
+    }
+}
@@ -0,0 +1,108 @@
+package com.mindex.challenge.graph;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Synthetic org charts for benchmarks, in the int-indexed form used by {@link OrgGraph}.
+ */
+final class SyntheticOrgs {
+
+    private SyntheticOrgs() {
+    }
+
+    /**
+     * Balanced org where node i manages nodes fanOut * i + 1 to fanOut * i + fanOut.
+     * @param size Number of employees
+     * @param fanOut Direct reports per manager
+     * @return Direct reports of every node
+     */
+    static int[][] balanced(int size, int fanOut) {
+        int[][] reports = new int[size][];
+        for (int i = 0; i < size; i++) {
+            int first = fanOut * i + 1;
+            int count = Math.max(0, Math.min(fanOut, size - first));
+            reports[i] = new int[count];
+            for (int r = 0; r < count; r++) {
+                reports[i][r] = first + r;
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * Flat org where node 0 manages every other node.
+     * @param size Number of employees
+     * @return Direct reports of every node
+     */
+    static int[][] flat(int size) {
+        int[][] reports = new int[size][];
+        reports[0] = new int[size - 1];
+        for (int i = 1; i < size; i++) {
+            reports[0][i - 1] = i;
+            reports[i] = new int[0];
+        }
+        return reports;
+    }
+
+    /**
+     * Chain where node i manages node i + 1, the deepest possible org.
+     * @param size Number of employees
+     * @return Direct reports of every node
+     */
+    static int[][] chain(int size) {
+        int[][] reports = new int[size][];
+        for (int i = 0; i < size; i++) {
+            reports[i] = i + 1 < size ? new int[]{i + 1} : new int[0];
+        }
+        return reports;
+    }
+
+    /**
+     * Balanced org where every node without reports also manages node 0, so each leaf closes a loop to the root.
+     * @param size Number of employees
+     * @param fanOut Direct reports per manager
+     * @return Direct reports of every node
+     */
+    static int[][] cyclic(int size, int fanOut) {
+        int[][] reports = balanced(size, fanOut);
+        for (int i = 1; i < size; i++) {
+            if (reports[i].length == 0) {
+                reports[i] = new int[]{0};
+            }
+        }
+        return reports;
+    }
+
+    static String[] ids(int size) {
+        String[] ids = new String[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = Integer.toString(i);
+        }
+        return ids;
+    }
+
+    static BitSet allKnown(int size) {
+        BitSet known = new BitSet(size);
+        known.set(0, size);
+        return known;
+    }
+
+    /**
+     * @return Direct report IDs keyed by employee ID, shaped like the documents in the repository
+     */
+    static Map<String, List<String>> byId(int[][] reports, String[] ids) {
+        Map<String, List<String>> byId = new HashMap<String, List<String>>();
+        for (int i = 0; i < reports.length; i++) {
+            List<String> dReports = new ArrayList<String>(reports[i].length);
+            for (int r : reports[i]) {
+                dReports.add(ids[r]);
+            }
+            byId.put(ids[i], dReports);
+        }
+        return byId;
+    }
+}
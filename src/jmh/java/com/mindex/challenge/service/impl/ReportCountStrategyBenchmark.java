@@ -0,0 +1,62 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.EmbeddedMongo;
+import com.mindex.challenge.SyntheticEmployees;
+import com.mindex.challenge.dao.EmployeeRepository;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares counting every report of the root of a balanced org against the embedded Mongo server,
+ * with one findByEmployeeId query per report versus one findByEmployeeIdIn query per level.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReportCountStrategyBenchmark {
+
+    @Param({"1000", "10000"})
+    public int employees;
+
+    @Param({"PER_NODE", "BATCHED"})
+    public ReportCountStrategy strategy;
+
+    private EmbeddedMongo mongo;
+    private EmployeeRepository employeeRepository;
+
+    @Setup
+    public void setup() {
+        mongo = new EmbeddedMongo();
+        employeeRepository = mongo.getEmployeeRepository();
+        employeeRepository.insert(SyntheticEmployees.balanced(employees, 8));
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongo.close();
+    }
+
+    @Benchmark
+    public int countRootReports() {
+        if (strategy == ReportCountStrategy.BATCHED) {
+            return RepositoryReportCounter.countBatched(employeeRepository, "0", 1000);
+        }
+        return RepositoryReportCounter.countPerNode(employeeRepository, "0");
+    }
+}
@@ -0,0 +1,102 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.SyntheticEmployees;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.tracing.Tracer;
+import com.mindex.challenge.tracing.TracingAspect;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the per request cost of tracing an in-memory employee lookup from 8 threads: without the tracing
+ * aspect at all, and through the aspect with a sample rate of 0, 1% and every request. Spans are drained
+ * every millisecond without being logged, so only recording and the ring buffer are measured.
+ * The lookup lives in this package so the aspect's service pointcut applies to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Threads(8)
+@Fork(1)
+public class TracingOverheadBenchmark {
+
+    @Param({"-1", "0", "0.01", "1"})
+    public double sampleRate;
+
+    private Tracer tracer;
+    private EmployeeLookup lookup;
+    private ScheduledExecutorService drainer;
+
+    @Setup
+    public void setup() {
+        EmployeeLookup target = new EmployeeLookup();
+        tracer = new Tracer(Math.max(0, sampleRate), 8192, 1000, new SimpleMeterRegistry());
+
+        // A negative sample rate stands for no tracing aspect at all
+        if (sampleRate < 0) {
+            lookup = target;
+        } else {
+            AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+            proxyFactory.setProxyTargetClass(true);
+            proxyFactory.addAspect(new TracingAspect(tracer));
+            lookup = proxyFactory.getProxy();
+        }
+
+        drainer = Executors.newSingleThreadScheduledExecutor();
+        drainer.scheduleWithFixedDelay(() -> tracer.drain(span -> { }), 1, 1, TimeUnit.MILLISECONDS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        drainer.shutdownNow();
+    }
+
+    @Benchmark
+    public Employee read() {
+        // Stands in for the controller advice, which begins and ends the trace of each request
+        boolean began = tracer.begin();
+        try {
+            return lookup.read("42");
+        } finally {
+            if (began) {
+                tracer.end();
+            }
+        }
+    }
+
+    public static class EmployeeLookup {
+        private final Map<String, Employee> employees = new HashMap<String, Employee>();
+
+        public EmployeeLookup() {
+            for (Employee employee : SyntheticEmployees.balanced(1000, 8)) {
+                employees.put(employee.getEmployeeId(), employee);
+            }
+        }
+
+        public Employee read(String id) {
+            return employees.get(id);
+        }
+    }
+}
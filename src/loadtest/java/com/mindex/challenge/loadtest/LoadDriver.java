@@ -0,0 +1,284 @@
+package com.mindex.challenge.loadtest;
+
+import com.mindex.challenge.ChallengeApplication;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Open-loop HTTP load driver for the employee, compensation and reporting structure endpoints.
+ * <p>
+ * Unless --url is given, a synthetic org chart is generated with {@link OrgChartGenerator}, loaded through
+ * DataBootstrap into an application started in this JVM on a random port, with the embedded Mongo.
+ * Options with a dot in their name are passed on as application properties. With --url, the org chart is
+ * streamed to the /employee/import endpoint of an already running instance instead.
+ * Requests are then scheduled at a fixed --rate per second for --duration seconds and spread over a pool of
+ * --connections worker threads. Latency is measured from the time a request was scheduled to be sent rather
+ * than from the time it was actually sent, so a stalled server shows up in the distribution instead of
+ * silently lowering the rate (coordinated omission).
+ * <p>
+ * The request mix is half employee reads, 30% reporting structure reads, and 10% each of compensation
+ * creates and reads. Compensation reads target employees given a compensation during warm up.
+ */
+public class LoadDriver {
+
+    private static final long WARM_UP_COMPENSATIONS = 1000;
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    enum Endpoint {
+        EMPLOYEE_READ("GET /employee/{id}"),
+        REPORTING_READ("GET /reportingStructure/{id}"),
+        COMPENSATION_CREATE("POST /compensation"),
+        COMPENSATION_READ("GET /compensation/{id}");
+
+        private final String label;
+
+        Endpoint(String label) {
+            this.label = label;
+        }
+    }
+
+    private final String baseUrl;
+    private final OrgChartGenerator orgChart;
+    private final Map<Endpoint, Histogram> latencies = new EnumMap<Endpoint, Histogram>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> errors = new EnumMap<Endpoint, LongAdder>(Endpoint.class);
+    // Compensations must have distinct effective dates per employee, so every create uses the next millisecond
+    private final AtomicLong effectiveDate = new AtomicLong(System.currentTimeMillis());
+
+    public LoadDriver(String baseUrl, OrgChartGenerator orgChart) {
+        this.baseUrl = baseUrl;
+        this.orgChart = orgChart;
+        for (Endpoint endpoint : Endpoint.values()) {
+            latencies.put(endpoint, new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+            errors.put(endpoint, new LongAdder());
+        }
+    }
+
+    /**
+     * Gives the first employees a compensation, so compensation reads have something to find.
+     */
+    public void warmUp() throws IOException {
+        long count = Math.min(WARM_UP_COMPENSATIONS, orgChart.size());
+        for (int i = 0; i < count; i++) {
+            send(Endpoint.COMPENSATION_CREATE, i);
+        }
+    }
+
+    /**
+     * @param rate Requests per second
+     * @param durationSeconds
+     * @param connections Number of worker threads, which bounds the number of requests in flight
+     */
+    public void run(int rate, int durationSeconds, int connections) throws InterruptedException {
+        for (Endpoint endpoint : Endpoint.values()) {
+            latencies.get(endpoint).reset();
+            errors.get(endpoint).reset();
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(connections);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long total = (long) rate * durationSeconds;
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            workers.execute(() -> request(intended));
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private void request(long intended) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        Endpoint endpoint;
+        int employee;
+        if (roll < 50) {
+            endpoint = Endpoint.EMPLOYEE_READ;
+            employee = random.nextInt(orgChart.size());
+        } else if (roll < 80) {
+            endpoint = Endpoint.REPORTING_READ;
+            employee = random.nextInt(orgChart.size());
+        } else if (roll < 90) {
+            endpoint = Endpoint.COMPENSATION_CREATE;
+            employee = random.nextInt(orgChart.size());
+        } else {
+            endpoint = Endpoint.COMPENSATION_READ;
+            employee = random.nextInt((int) Math.min(WARM_UP_COMPENSATIONS, orgChart.size()));
+        }
+
+        try {
+            if (!send(endpoint, employee)) {
+                errors.get(endpoint).increment();
+            }
+        } catch (IOException e) {
+            errors.get(endpoint).increment();
+        }
+        latencies.get(endpoint).recordValue(Math.min(System.nanoTime() - intended, HIGHEST_TRACKABLE_NANOS));
+    }
+
+    /**
+     * @return Whether the response was successful
+     */
+    private boolean send(Endpoint endpoint, int employee) throws IOException {
+        String employeeId = orgChart.employeeId(employee);
+        HttpURLConnection connection;
+        switch (endpoint) {
+            case EMPLOYEE_READ:
+                connection = open("/employee/" + employeeId);
+                break;
+            case REPORTING_READ:
+                connection = open("/reportingStructure/" + employeeId);
+                break;
+            case COMPENSATION_READ:
+                connection = open("/compensation/" + employeeId);
+                break;
+            case COMPENSATION_CREATE:
+                connection = open("/compensation");
+                connection.setRequestMethod("POST");
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                String body = "{\"employee\":{\"employeeId\":\"" + employeeId + "\"},"
+                    + "\"salary\":" + (50000 + ThreadLocalRandom.current().nextInt(100000)) + ","
+                    + "\"effectiveDate\":" + effectiveDate.incrementAndGet() + "}";
+                try (OutputStream outputStream = connection.getOutputStream()) {
+                    outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown endpoint " + endpoint);
+        }
+
+        int status = connection.getResponseCode();
+        // Drain the body so the keep-alive connection can be reused
+        try (InputStream inputStream = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            if (inputStream != null) {
+                byte[] buffer = new byte[8192];
+                while (inputStream.read(buffer) != -1) {
+                    // Discard
+                }
+            }
+        }
+        return status < 400;
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setConnectTimeout(10000);
+        connection.setReadTimeout(60000);
+        return connection;
+    }
+
+    public void report() {
+        System.out.printf("%-30s %8s %8s %10s %10s %10s %10s %10s%n",
+            "endpoint", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = latencies.get(endpoint);
+            System.out.printf("%-30s %8d %8d %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                endpoint.label,
+                histogram.getTotalCount(),
+                errors.get(endpoint).sum(),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<String, String>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+
+        OrgChartGenerator orgChart = new OrgChartGenerator(
+            Integer.parseInt(options.getOrDefault("size", "10000")),
+            Integer.parseInt(options.getOrDefault("fan-out", "8")),
+            Integer.parseInt(options.getOrDefault("depth", "10")),
+            Integer.parseInt(options.getOrDefault("cycles", "0")),
+            Integer.parseInt(options.getOrDefault("dangling", "0")),
+            Long.parseLong(options.getOrDefault("seed", "1"))
+        );
+        int rate = Integer.parseInt(options.getOrDefault("rate", "500"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int connections = Integer.parseInt(options.getOrDefault("connections", "64"));
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.get("url");
+        if (baseUrl == null) {
+            Path orgChartFile = Files.createTempFile("org-chart", ".json.gz");
+            orgChartFile.toFile().deleteOnExit();
+            try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(orgChartFile), 64 * 1024)) {
+                orgChart.write(outputStream, false);
+            }
+
+            // Options with a dot in their name, e.g. --datastore.mode=in-memory, configure the application
+            List<String> properties = new ArrayList<String>();
+            properties.add("server.port=0");
+            properties.add("logging.level.com.mindex=INFO");
+            properties.add("bootstrap.location=" + orgChartFile.toUri());
+            for (Map.Entry<String, String> option : options.entrySet()) {
+                if (option.getKey().contains(".")) {
+                    properties.add(option.getKey() + "=" + option.getValue());
+                }
+            }
+            context = new SpringApplicationBuilder(ChallengeApplication.class)
+                .properties(properties.toArray(new String[0]))
+                .run();
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            baseUrl = "http://localhost:" + port;
+        } else {
+            System.out.println(orgChart.post(new URL(baseUrl + "/employee/import")));
+        }
+
+        try {
+            LoadDriver driver = new LoadDriver(baseUrl, orgChart);
+            driver.warmUp();
+            System.out.printf("Sending %d requests/s for %d s to %s, %d employees%n",
+                rate, duration, baseUrl, orgChart.size());
+            driver.run(rate, duration, connections);
+            driver.report();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.mindex.challenge.loadtest;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Generates synthetic org charts in the shape of employee_database.json, for loading through DataBootstrap
+ * (bootstrap.location) or the /employee/import endpoint.
+ * <p>
+ * Employees are numbered breadth-first from the root, so the direct reports of each manager are a contiguous
+ * range of numbers and the whole chart is described by two int arrays, however large it is.
+ * Each manager above the maximum depth gets between 1 and 2 * fanOut - 1 direct reports, fanOut on average.
+ * Optional cycles make a random employee also manage one of its own managers, and optional dangling reports
+ * add directReports IDs that have no employee record, which the reporting structure reports as invalid. Output is written as a stream, and is fully determined
+ * by the options and the seed.
+ * <p>
+ * Run with --size, --fan-out, --depth, --cycles, --dangling, --seed and either --output (a .json, .ndjson or
+ * .gz file) or --import-url to stream NDJSON straight to a running instance.
+ */
+public class OrgChartGenerator {
+
+    private static final String[] FIRST_NAMES = {
+        "John", "Paul", "George", "Ringo", "Pete", "Stuart", "Yoko", "Linda", "Cynthia", "Pattie", "Maureen", "Julian"
+    };
+    private static final String[] LAST_NAMES = {
+        "Lennon", "McCartney", "Harrison", "Starr", "Best", "Sutcliffe", "Ono", "Eastman", "Powell", "Boyd", "Cox", "Martin"
+    };
+    private static final String[] DEPARTMENTS = {
+        "Engineering", "Sales", "Marketing", "Finance", "Operations", "Support", "Legal", "People"
+    };
+    private static final String[] POSITIONS = {
+        "Chief Executive", "Vice President", "Director", "Manager", "Lead"
+    };
+    private static final String INDIVIDUAL_POSITION = "Developer";
+
+    private final int size;
+    private final long seed;
+
+    private final int[] firstReport;
+    private final int[] reportCount;
+    private final int[] depths;
+    private final Map<Integer, List<String>> extraReports = new HashMap<Integer, List<String>>();
+
+    /**
+     * @param size Number of employees
+     * @param fanOut Average number of direct reports per manager
+     * @param depth Maximum number of levels below the root
+     * @param cycles Number of employees that also manage one of their own managers
+     * @param dangling Number of directReports IDs without an employee record
+     * @param seed Seed for every random choice, including employee IDs
+     */
+    public OrgChartGenerator(int size, int fanOut, int depth, int cycles, int dangling, long seed) {
+        if (size < 1 || fanOut < 1 || depth < 0) {
+            throw new IllegalArgumentException("Size and fan out must be positive and depth not negative");
+        }
+        this.size = size;
+        this.seed = seed;
+        this.firstReport = new int[size];
+        this.reportCount = new int[size];
+        this.depths = new int[size];
+
+        Random random = new Random(seed);
+        int next = 1;
+        for (int manager = 0; manager < size && next < size; manager++) {
+            if (manager == next) {
+                throw new IllegalArgumentException("Cannot fit " + size + " employees within depth " + depth
+                    + ", raise the fan out or depth");
+            }
+            if (depths[manager] == depth) {
+                continue;
+            }
+
+            int count = Math.min(1 + random.nextInt(2 * fanOut - 1), size - next);
+            firstReport[manager] = next;
+            reportCount[manager] = count;
+            for (int r = next; r < next + count; r++) {
+                depths[r] = depths[manager] + 1;
+            }
+            next += count;
+        }
+        if (next < size) {
+            throw new IllegalArgumentException("Cannot fit " + size + " employees within depth " + depth
+                + ", raise the fan out or depth");
+        }
+
+        addCycles(cycles, random);
+        for (int i = 0; i < dangling; i++) {
+            addExtraReport(random.nextInt(size), "dangling-" + i);
+        }
+    }
+
+    /**
+     * Makes random employees below the root also manage a manager above them, found by walking up the contiguous
+     * report ranges.
+     */
+    private void addCycles(int cycles, Random random) {
+        if (size < 2) {
+            return;
+        }
+        int[] managers = new int[size];
+        for (int manager = 0; manager < size; manager++) {
+            for (int r = firstReport[manager]; r < firstReport[manager] + reportCount[manager]; r++) {
+                managers[r] = manager;
+            }
+        }
+
+        for (int i = 0; i < cycles; i++) {
+            int employee = 1 + random.nextInt(size - 1);
+            int ancestor = managers[employee];
+            for (int up = random.nextInt(depths[employee]); up > 0; up--) {
+                ancestor = managers[ancestor];
+            }
+            addExtraReport(employee, employeeId(ancestor));
+        }
+    }
+
+    private void addExtraReport(int manager, String employeeId) {
+        extraReports.computeIfAbsent(manager, m -> new ArrayList<String>()).add(employeeId);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index Breadth-first number of the employee, 0 for the root
+     * @return Employee ID, a UUID derived from the seed and the number
+     */
+    public String employeeId(int index) {
+        return UUID.nameUUIDFromBytes((seed + ":" + index).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * Writes every employee, root first.
+     * @param outputStream
+     * @param ndjson Whether to write one employee per line rather than a JSON array
+     */
+    public void write(OutputStream outputStream, boolean ndjson) throws IOException {
+        try (JsonGenerator generator = new JsonFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(ndjson ? "\n" : ""));
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+            for (int i = 0; i < size; i++) {
+                writeEmployee(generator, i);
+            }
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+            generator.writeRaw('\n');
+        }
+    }
+
+    private void writeEmployee(JsonGenerator generator, int index) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("employeeId", employeeId(index));
+        generator.writeStringField("firstName", FIRST_NAMES[index % FIRST_NAMES.length]);
+        generator.writeStringField("lastName", LAST_NAMES[(index / FIRST_NAMES.length) % LAST_NAMES.length]);
+        generator.writeStringField("position", reportCount[index] > 0
+            ? POSITIONS[Math.min(depths[index], POSITIONS.length - 1)]
+            : INDIVIDUAL_POSITION);
+        generator.writeStringField("department", DEPARTMENTS[index % DEPARTMENTS.length]);
+
+        List<String> extras = extraReports.get(index);
+        if (reportCount[index] > 0 || extras != null) {
+            generator.writeArrayFieldStart("directReports");
+            for (int r = firstReport[index]; r < firstReport[index] + reportCount[index]; r++) {
+                writeReport(generator, employeeId(r));
+            }
+            if (extras != null) {
+                for (String extra : extras) {
+                    writeReport(generator, extra);
+                }
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeReport(JsonGenerator generator, String employeeId) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("employeeId", employeeId);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Streams the org chart as NDJSON to an /employee/import endpoint.
+     * @param importUrl
+     * @return Response body, the import result
+     */
+    public String post(URL importUrl) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) importUrl.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(64 * 1024);
+        connection.setRequestProperty("Content-Type", "application/x-ndjson");
+
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            write(outputStream, true);
+        }
+        try {
+            byte[] body = readAll(connection);
+            if (connection.getResponseCode() >= 300) {
+                throw new IOException("Import failed with " + connection.getResponseCode() + ": "
+                    + new String(body, StandardCharsets.UTF_8));
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static byte[] readAll(HttpURLConnection connection) throws IOException {
+        InputStream inputStream = connection.getResponseCode() >= 300
+            ? connection.getErrorStream()
+            : connection.getInputStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if (inputStream != null) {
+            try (InputStream in = inputStream) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    body.write(buffer, 0, read);
+                }
+            }
+        }
+        return body.toByteArray();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<String, String>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+
+        OrgChartGenerator generator = new OrgChartGenerator(
+            Integer.parseInt(options.getOrDefault("size", "10000")),
+            Integer.parseInt(options.getOrDefault("fan-out", "8")),
+            Integer.parseInt(options.getOrDefault("depth", "10")),
+            Integer.parseInt(options.getOrDefault("cycles", "0")),
+            Integer.parseInt(options.getOrDefault("dangling", "0")),
+            Long.parseLong(options.getOrDefault("seed", "1"))
+        );
+
+        if (options.containsKey("import-url")) {
+            System.out.println(generator.post(new URL(options.get("import-url"))));
+            return;
+        }
+
+        String output = options.getOrDefault("output", "employees.json.gz");
+        OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(Paths.get(output)), 64 * 1024);
+        if (output.endsWith(".gz")) {
+            outputStream = new GZIPOutputStream(outputStream, 64 * 1024);
+        }
+        try (OutputStream out = outputStream) {
+            generator.write(out, output.endsWith(".ndjson") || output.endsWith(".ndjson.gz"));
+        }
+        System.out.println("Wrote " + generator.size() + " employees to " + output);
+    }
+}
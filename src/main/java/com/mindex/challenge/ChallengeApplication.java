@@ -2,8 +2,23 @@ package com.mindex.challenge;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
 
-@SpringBootApplication
+// Mongo beans and repositories are set up by MongoConfig and ReactiveMongoConfig,
+// or replaced entirely by InMemoryDatastoreConfig
+@SpringBootApplication(exclude = {
+	MongoAutoConfiguration.class,
+	MongoDataAutoConfiguration.class,
+	MongoRepositoriesAutoConfiguration.class,
+	MongoReactiveAutoConfiguration.class,
+	MongoReactiveDataAutoConfiguration.class,
+	MongoReactiveRepositoriesAutoConfiguration.class
+})
 public class ChallengeApplication {
 
 	public static void main(String[] args) {
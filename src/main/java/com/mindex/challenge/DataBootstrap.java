@@ -1,18 +1,44 @@
 package com.mindex.challenge;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mindex.challenge.dao.EmployeeRepository;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.snapshot.SnapshotStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
-import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPInputStream;
 
+/**
+ * Seeds the employee collection at startup from a JSON array of employees.
+ * The file is parsed as a stream and inserted in batches, so heap use is bounded by the batch size
+ * rather than the file size. With a parallelism above 1, batches are inserted concurrently while
+ * parsing continues, with at most that many batches in flight.
+ * Nothing is loaded when employees already exist, either restored from a {@link SnapshotStore} snapshot
+ * or persisted by a durable backend.
+ * <p>
+ * Loading starts once every singleton is created rather than from an init method: parallel inserts publish
+ * mapping events from other threads, which would wait on the bean factory held by the thread creating the beans.
+ */
 @Component
-public class DataBootstrap {
-    private static final String DATASTORE_LOCATION = "/static/employee_database.json";
+public class DataBootstrap implements SmartInitializingSingleton {
+    private static final Logger LOG = LoggerFactory.getLogger(DataBootstrap.class);
 
     @Autowired
     private EmployeeRepository employeeRepository;
@@ -20,20 +46,113 @@ public class DataBootstrap {
     @Autowired
     private ObjectMapper objectMapper;
 
-    @PostConstruct
-    public void init() {
-        InputStream inputStream = this.getClass().getResourceAsStream(DATASTORE_LOCATION);
+    // Injected so that a snapshot is restored before checking for existing employees
+    @Autowired(required = false)
+    private SnapshotStore snapshotStore;
 
-        Employee[] employees = null;
+    // Any Spring resource location, e.g. file:/data/employees.json.gz. Files ending in .gz are decompressed.
+    @Value("${bootstrap.location:classpath:/static/employee_database.json}")
+    private Resource location;
 
-        try {
-            employees = objectMapper.readValue(inputStream, Employee[].class);
+    @Value("${bootstrap.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${bootstrap.parallelism:1}")
+    private int parallelism;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long existing = employeeRepository.count();
+        if (existing > 0) {
+            LOG.debug("Skipping load from {}, {} employee(s) already restored or persisted", location, existing);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int loaded;
+
+        try (InputStream inputStream = open(location)) {
+            loaded = load(inputStream);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
 
-        for (Employee employee : employees) {
-            employeeRepository.insert(employee);
+        LOG.debug("Loaded {} employee(s) from {} in {} ms", loaded, location, System.currentTimeMillis() - start);
+    }
+
+    private static InputStream open(Resource resource) throws IOException {
+        InputStream inputStream = resource.getInputStream();
+        String filename = resource.getFilename();
+        if (filename != null && filename.endsWith(".gz")) {
+            return new GZIPInputStream(inputStream, 64 * 1024);
         }
+        return inputStream;
+    }
+
+    /**
+     * @return Number of employees inserted
+     */
+    private int load(InputStream inputStream) throws IOException {
+        ExecutorService executor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism) : null;
+        // Bounds the batches that are parsed but not yet inserted
+        Semaphore inFlight = new Semaphore(Math.max(1, parallelism));
+        List<Future<?>> inserts = new ArrayList<Future<?>>();
+        int count = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of employees in " + location);
+            }
+
+            List<Employee> batch = new ArrayList<Employee>(batchSize);
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                batch.add(objectMapper.readValue(parser, Employee.class));
+                count++;
+
+                if (batch.size() == batchSize) {
+                    insert(batch, executor, inFlight, inserts);
+                    batch = new ArrayList<Employee>(batchSize);
+                }
+            }
+            if (token != JsonToken.END_ARRAY && token != null) {
+                throw new IOException("Expected an employee object at " + parser.getCurrentLocation()
+                    + " in " + location + " but found " + token);
+            }
+            if (!batch.isEmpty()) {
+                insert(batch, executor, inFlight, inserts);
+            }
+
+            for (Future<?> insert : inserts) {
+                insert.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        return count;
+    }
+
+    private void insert(List<Employee> batch, ExecutorService executor, Semaphore inFlight, List<Future<?>> inserts)
+            throws InterruptedException {
+        if (executor == null) {
+            employeeRepository.insert(batch);
+            return;
+        }
+
+        inFlight.acquire();
+        inserts.add(executor.submit(() -> {
+            try {
+                employeeRepository.insert(batch);
+            } finally {
+                inFlight.release();
+            }
+        }));
     }
 }
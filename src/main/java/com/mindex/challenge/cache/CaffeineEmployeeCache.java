@@ -0,0 +1,69 @@
+package com.mindex.challenge.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mindex.challenge.data.Employee;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * {@link EmployeeCache} backed by Caffeine, which evicts by size with W-TinyLFU and by time since last write.
+ */
+@Component
+@ConditionalOnProperty(name = "employee.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class CaffeineEmployeeCache implements EmployeeCache {
+    private static final Logger LOG = LoggerFactory.getLogger(CaffeineEmployeeCache.class);
+
+    @Value("${employee.cache.maximum-size:100000}")
+    private long maximumSize;
+
+    @Value("${employee.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private Cache<String, Employee> cache;
+
+    @PostConstruct
+    public void init() {
+        LOG.debug("Creating employee cache with maximum size {} and ttl {}s", maximumSize, ttlSeconds);
+
+        cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+    }
+
+    @Override
+    public Employee get(String employeeId, Function<String, Employee> loader) {
+        return cache.get(employeeId, loader);
+    }
+
+    @Override
+    public void put(Employee employee) {
+        cache.put(employee.getEmployeeId(), employee);
+    }
+
+    @Override
+    public void invalidate(String employeeId) {
+        cache.invalidate(employeeId);
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public CacheStatistics getStatistics() {
+        CacheStats stats = cache.stats();
+        return new CacheStatistics(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.estimatedSize());
+    }
+}
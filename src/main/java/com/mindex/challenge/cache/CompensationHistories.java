@@ -0,0 +1,83 @@
+package com.mindex.challenge.cache;
+
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.data.CompensationRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compensation history of every employee, sorted by effective date.
+ * Loaded from {@link CompensationRepository} on first use and kept up to date through {@link #offer(CompensationRecord)},
+ * so current, historical and as-of reads never have to query or sort compensations in the database.
+ * Compensations are held in their compact persisted form.
+ * Compensation versions are handed out from here too, continuing from the highest version loaded.
+ */
+@Component
+public class CompensationHistories {
+    private static final Logger LOG = LoggerFactory.getLogger(CompensationHistories.class);
+
+    @Autowired
+    private CompensationRepository compensationRepository;
+
+    private final Map<String, CompensationHistory> historyByEmployeeId = new ConcurrentHashMap<String, CompensationHistory>();
+    private final AtomicLong lastVersion = new AtomicLong();
+    private volatile boolean loaded;
+
+    /**
+     * @param employeeId
+     * @return Compensation history of the employee, empty if the employee has none
+     */
+    public CompensationHistory get(String employeeId) {
+        ensureLoaded();
+
+        return historyByEmployeeId.getOrDefault(employeeId, CompensationHistory.EMPTY);
+    }
+
+    /**
+     * Records a new compensation in the history of its employee.
+     * @param compensation Compensation as persisted
+     */
+    public void offer(CompensationRecord compensation) {
+        ensureLoaded();
+
+        offerInternal(compensation);
+    }
+
+    /**
+     * @return Version for a new compensation, higher than that of any compensation loaded or created before
+     */
+    public long nextVersion() {
+        ensureLoaded();
+
+        return lastVersion.incrementAndGet();
+    }
+
+    private void offerInternal(CompensationRecord compensation) {
+        historyByEmployeeId.compute(
+            compensation.getEmployeeId(),
+            (employeeId, history) -> (history == null ? CompensationHistory.EMPTY : history).with(compensation)
+        );
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    for (CompensationRecord compensation : compensationRepository.findAll()) {
+                        offerInternal(compensation);
+                        lastVersion.accumulateAndGet(compensation.getVersion(), Math::max);
+                    }
+                    loaded = true;
+
+                    LOG.debug("Loaded compensation history for {} employee(s)", historyByEmployeeId.size());
+                }
+            }
+        }
+    }
+}
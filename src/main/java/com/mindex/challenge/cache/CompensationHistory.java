@@ -0,0 +1,94 @@
+package com.mindex.challenge.cache;
+
+import com.mindex.challenge.data.CompensationRecord;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Immutable compensation history of one employee, sorted by effective date.
+ * Effective dates are kept in a parallel long array, so as-of lookups are a binary search.
+ * Compensations with the same effective date are kept in the order they were added.
+ */
+public final class CompensationHistory {
+    static final CompensationHistory EMPTY = new CompensationHistory(new long[0], new CompensationRecord[0]);
+
+    private final long[] effectiveDates;
+    private final CompensationRecord[] records;
+
+    private CompensationHistory(long[] effectiveDates, CompensationRecord[] records) {
+        this.effectiveDates = effectiveDates;
+        this.records = records;
+    }
+
+    /**
+     * @param record
+     * @return Copy of this history with the compensation added
+     */
+    CompensationHistory with(CompensationRecord record) {
+        long effectiveDate = toMillis(record.getEffectiveDate());
+        // Insert after any compensation with the same effective date
+        int index = indexAtOrBefore(effectiveDate) + 1;
+
+        long[] dates = new long[effectiveDates.length + 1];
+        System.arraycopy(effectiveDates, 0, dates, 0, index);
+        System.arraycopy(effectiveDates, index, dates, index + 1, effectiveDates.length - index);
+        dates[index] = effectiveDate;
+
+        CompensationRecord[] added = new CompensationRecord[records.length + 1];
+        System.arraycopy(records, 0, added, 0, index);
+        System.arraycopy(records, index, added, index + 1, records.length - index);
+        added[index] = record;
+
+        return new CompensationHistory(dates, added);
+    }
+
+    /**
+     * @return Compensation with the latest effective date, or null if there is none
+     */
+    public CompensationRecord latest() {
+        return records.length == 0 ? null : records[records.length - 1];
+    }
+
+    /**
+     * @param date
+     * @return Compensation in effect on the date, meaning the latest one effective on or before it, or null if there is none
+     */
+    public CompensationRecord asOf(Date date) {
+        int index = indexAtOrBefore(toMillis(date));
+        return index < 0 ? null : records[index];
+    }
+
+    /**
+     * @return Every compensation, oldest effective date first
+     */
+    public List<CompensationRecord> all() {
+        return Collections.unmodifiableList(Arrays.asList(records));
+    }
+
+    /**
+     * @return Index of the last compensation effective on or before the date, or -1
+     */
+    private int indexAtOrBefore(long effectiveDate) {
+        int low = 0;
+        int high = effectiveDates.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (effectiveDates[mid] <= effectiveDate) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Missing effective dates sort before every date, as they do in Mongo.
+     */
+    private static long toMillis(Date date) {
+        return date == null ? Long.MIN_VALUE : date.getTime();
+    }
+}
@@ -0,0 +1,22 @@
+package com.mindex.challenge.cache;
+
+import com.mindex.challenge.data.Employee;
+
+import java.util.function.Function;
+
+/**
+ * Read-through cache of employees by employeeId, shared by every service that looks employees up.
+ * Services must put or invalidate an employee whenever they write it.
+ */
+public interface EmployeeCache {
+    /**
+     * @param employeeId
+     * @param loader Loads the employee on a miss, may return null for an unknown ID, which is not cached
+     * @return Cached or loaded employee, or null
+     */
+    Employee get(String employeeId, Function<String, Employee> loader);
+    void put(Employee employee);
+    void invalidate(String employeeId);
+    void invalidateAll();
+    CacheStatistics getStatistics();
+}
@@ -0,0 +1,40 @@
+package com.mindex.challenge.cache;
+
+import com.mindex.challenge.data.Employee;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * {@link EmployeeCache} that always loads, used when the cache is disabled.
+ */
+@Component
+@ConditionalOnProperty(name = "employee.cache.enabled", havingValue = "false")
+public class NoOpEmployeeCache implements EmployeeCache {
+    private final AtomicLong missCount = new AtomicLong();
+
+    @Override
+    public Employee get(String employeeId, Function<String, Employee> loader) {
+        missCount.incrementAndGet();
+        return loader.apply(employeeId);
+    }
+
+    @Override
+    public void put(Employee employee) {
+    }
+
+    @Override
+    public void invalidate(String employeeId) {
+    }
+
+    @Override
+    public void invalidateAll() {
+    }
+
+    @Override
+    public CacheStatistics getStatistics() {
+        return new CacheStatistics(0, missCount.get(), 0, 0);
+    }
+}
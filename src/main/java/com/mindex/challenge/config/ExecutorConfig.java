@@ -0,0 +1,94 @@
+package com.mindex.challenge.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads used to handle requests and to fan out repository lookups, selected with executor.mode.
+ * <ul>
+ * <li>platform: Tomcat's own request pool</li>
+ * <li>virtual: experimental, a new virtual thread per request, which needs a JDK 21 runtime</li>
+ * </ul>
+ * Lookups run on a fixed pool of executor.lookup-threads in both modes. Tomcat 9.0 handles each request inside
+ * a synchronized block, which pins a virtual request thread to its carrier while it waits on its lookups.
+ * Lookups on virtual threads would need free carriers too, so once every carrier holds a waiting request
+ * nothing is left to run them and the requests never complete.
+ * <p>
+ * Because of that pinning, the virtual mode holds one carrier per request in flight, much like the platform pool,
+ * and no throughput gain over it has been measured. It is kept for trying out virtual threads on JDK 21 only.
+ * Unpinned virtual request threads need Spring Boot 3.2 on JDK 21, which this application does not target.
+ */
+@Configuration
+public class ExecutorConfig {
+    private static final Logger LOG = LoggerFactory.getLogger(ExecutorConfig.class);
+
+    @Value("${executor.mode:platform}")
+    private String mode;
+
+    @Value("${executor.lookup-threads:16}")
+    private int lookupThreads;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService lookupExecutor() {
+        if (isVirtual()) {
+            LOG.debug("Fanning out lookups on platform threads, since requests pin their virtual threads");
+        }
+
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "lookup-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(lookupThreads, threadFactory);
+    }
+
+    /**
+     * Starts a virtual thread per request, shut down with the context rather than left to Tomcat,
+     * which does not stop an executor it was given.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnProperty(name = "executor.mode", havingValue = "virtual")
+    public ExecutorService requestExecutor() {
+        LOG.warn("Handling requests on virtual threads, which is experimental: Tomcat 9 pins them to their carriers");
+        return VirtualThreads.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Hands every request on Tomcat's connector to its own virtual thread instead of the fixed worker pool.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnProperty(name = "executor.mode", havingValue = "virtual")
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadRequestExecutor(
+            @Qualifier("requestExecutor") ExecutorService requestExecutor) {
+        return factory -> factory.addConnectorCustomizers(
+            connector -> connector.getProtocolHandler().setExecutor(requestExecutor)
+        );
+    }
+
+    private boolean isVirtual() {
+        switch (mode) {
+            case "platform":
+                return false;
+            case "virtual":
+                return true;
+            default:
+                throw new IllegalStateException("Unknown executor.mode: " + mode);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.InMemoryCompensationRepository;
+import com.mindex.challenge.dao.InMemoryEmployeeRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Repositories held directly in the heap, in place of MongoConfig, when datastore.mode is in-memory.
+ * No Mongo server or client is started, and nothing survives a restart.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datastore.mode", havingValue = "in-memory")
+public class InMemoryDatastoreConfig {
+    @Bean
+    public EmployeeRepository employeeRepository() {
+        return new InMemoryEmployeeRepository();
+    }
+
+    @Bean
+    public CompensationRepository compensationRepository() {
+        return new InMemoryCompensationRepository();
+    }
+}
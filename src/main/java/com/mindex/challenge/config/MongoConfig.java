@@ -1,19 +1,36 @@
 package com.mindex.challenge.config;
 
+import com.mindex.challenge.dao.CompensationRepository;
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.GroupCommitWriter;
+import com.mindex.challenge.data.CompensationRecord;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.snapshot.SnapshotStore;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoBackend;
 import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.h2.H2Backend;
 import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.h2.mvstore.MVStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.MongoDbFactory;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.SimpleMongoClientDbFactory;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
 @EnableMongoRepositories(basePackageClasses = EmployeeRepository.class)
 @Configuration
+@ConditionalOnProperty(name = "datastore.mode", havingValue = "mongo", matchIfMissing = true)
 public class MongoConfig{
     @Bean
     public MongoTemplate mongoTemplate(MongoClient mongoClient) {
@@ -25,17 +42,85 @@ public class MongoConfig{
         return new SimpleMongoClientDbFactory(mongoClient, "test");
     }
 
+    /**
+     * File-backed store for the H2 backend, selected with mongo.backend=h2.
+     * Changes are committed by the {@link GroupCommitWriter} after every group of writes, and in the background
+     * for writes that do not go through it.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "mongo.backend", havingValue = "h2")
+    public MVStore mvStore(@Value("${mongo.h2.file:data/challenge.mv}") String file) {
+        return new MVStore.Builder().fileName(file).open();
+    }
+
+    /**
+     * Closed by the MongoServer when it shuts down. Exposed so that a SnapshotStore can restore into it directly.
+     */
+    @Bean(destroyMethod="")
+    public MongoBackend mongoBackend(ObjectProvider<MVStore> mvStore) {
+        MVStore store = mvStore.getIfAvailable();
+        return store != null ? new H2Backend(store) : new MemoryBackend();
+    }
+
     @Bean(destroyMethod="shutdown")
-    public MongoServer mongoServer() {
-        MongoServer mongoServer = new MongoServer(new MemoryBackend());
+    public MongoServer mongoServer(MongoBackend backend) {
+        MongoServer mongoServer = new MongoServer(backend);
         mongoServer.bind();
         return mongoServer;
     }
 
     @Bean(destroyMethod="close")
-    public MongoClient mongoClient() {
-        return MongoClients.create("mongodb:/" + mongoServer().getLocalAddress());
+    public MongoClient mongoClient(MongoServer mongoServer) {
+        return MongoClients.create("mongodb:/" + mongoServer.getLocalAddress());
+    }
+
+    /**
+     * Only the H2 backend has anything to commit. With the memory backend writes go to the repositories directly,
+     * since grouping them would only serialize them through one thread.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "mongo.backend", havingValue = "h2")
+    public GroupCommitWriter groupCommitWriter(EmployeeRepository employeeRepository,
+                                               CompensationRepository compensationRepository,
+                                               MVStore mvStore,
+                                               @Value("${write.group.max-size:1000}") int maxGroupSize) {
+        return new GroupCommitWriter(employeeRepository, compensationRepository, mvStore::commit, maxGroupSize);
     }
-}
 
+    /**
+     * Checks at startup that Employee.employeeId is mapped to _id, so findByEmployeeId is served by the primary key index
+     * instead of a collection scan. Every collection has an _id index, so the mapping is what needs checking.
+     */
+    @Bean
+    public SmartInitializingSingleton employeeIdCheck(MongoTemplate mongoTemplate) {
+        return () -> {
+            MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(Employee.class);
+            MongoPersistentProperty idProperty = entity.getIdProperty();
+
+            if (idProperty == null || !"employeeId".equals(idProperty.getName())) {
+                throw new IllegalStateException("Employee.employeeId is not mapped to _id, found "
+                    + (idProperty == null ? "no id property" : idProperty.getName()));
+            }
+        };
+    }
 
+    /**
+     * Creates the index used to find the latest compensations of an employee at startup.
+     */
+    @Bean
+    public SmartInitializingSingleton compensationIndex(MongoTemplate mongoTemplate) {
+        return () -> mongoTemplate.indexOps(CompensationRecord.class).ensureIndex(
+            new Index()
+                .on("employeeId", Sort.Direction.ASC)
+                .on("effectiveDate", Sort.Direction.DESC)
+                .named("employeeId_effectiveDate")
+        );
+    }
+
+    @Bean
+    @ConditionalOnProperty("snapshot.location")
+    public SnapshotStore snapshotStore() {
+        return new SnapshotStore();
+    }
+}
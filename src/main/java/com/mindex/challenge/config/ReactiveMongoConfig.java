@@ -0,0 +1,38 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.reactive.dao.ReactiveEmployeeRepository;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+/**
+ * Reactive client and repositories for the reactive web stack, connected to the same server as MongoConfig.
+ * Served by Netty rather than Tomcat, which is also on the classpath for the servlet stack.
+ */
+@EnableReactiveMongoRepositories(basePackageClasses = ReactiveEmployeeRepository.class)
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnProperty(name = "datastore.mode", havingValue = "mongo", matchIfMissing = true)
+public class ReactiveMongoConfig {
+    @Bean(destroyMethod="close")
+    public MongoClient reactiveMongoClient(MongoServer mongoServer) {
+        return MongoClients.create("mongodb:/" + mongoServer.getLocalAddress());
+    }
+
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(MongoClient reactiveMongoClient) {
+        return new ReactiveMongoTemplate(reactiveMongoClient, "test");
+    }
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
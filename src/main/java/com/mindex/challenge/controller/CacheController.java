@@ -0,0 +1,24 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.cache.CacheStatistics;
+import com.mindex.challenge.cache.EmployeeCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CacheController {
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    /**
+     * Returns hit, miss and eviction counts of the employee cache since startup.
+     * @return
+     */
+    @GetMapping("/cache/employee/stats")
+    public CacheStatistics readEmployeeCacheStatistics() {
+        return employeeCache.getStatistics();
+    }
+}
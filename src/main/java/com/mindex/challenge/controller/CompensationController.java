@@ -1,30 +1,107 @@
 package com.mindex.challenge.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.data.BatchResult;
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.service.CompensationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.List;
+
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CompensationController {
     private static final Logger LOG = LoggerFactory.getLogger(CompensationController.class);
 
     @Autowired
     private CompensationService compensationService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Compensation versions restart when compensations are reloaded into a fresh datastore,
+    // so ETags are qualified with the start time of the process, as in OrgGraph
+    private final long epoch = System.currentTimeMillis();
+
     @PostMapping("/compensation")
     public Compensation create(@RequestBody Compensation compensation) {
-        LOG.debug("Received employee compensation create request for [{}]", compensation);
+        LOG.debug("Received employee compensation create request");
 
         return compensationService.create(compensation);
     }
 
+    /**
+     * Creates many compensations from either a JSON array or newline-delimited JSON, read as a stream.
+     * Invalid compensations are reported in the result without stopping the rest of the batch.
+     * @param body
+     * @return
+     */
+    @PostMapping(value = "/compensation/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public BatchResult createAll(InputStream body) throws IOException {
+        LOG.debug("Received compensation batch create request");
+
+        return compensationService.createAll(objectMapper.readerFor(Compensation.class).readValues(body));
+    }
+
+    /**
+     * Returns the compensation of an employee in effect on a date, which defaults to the current compensation.
+     * @param employeeId
+     * @param asOf ISO date, e.g. 2020-01-31
+     * @return
+     */
     @GetMapping("/compensation/{employeeId}")
-    public Compensation read(@PathVariable String employeeId) {
-        LOG.debug("Received compensation get request for employee id [{}]", employeeId);
+    public ResponseEntity<Compensation> read(
+        @PathVariable String employeeId,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date asOf
+    ) {
+        LOG.debug("Received compensation get request for employee id [{}] as of [{}]", employeeId, asOf);
+
+        // Compensations are read from memory, so the ETag is checked against the result, before serializing it
+        Compensation compensation = compensationService.read(employeeId, asOf);
+        Long employeeVersion = compensation.getEmployee().getVersion();
+        return ResponseEntity.ok()
+            .eTag(Long.toHexString(epoch) + "-" + compensation.getVersion() + "-" + (employeeVersion == null ? 0 : employeeVersion))
+            .body(compensation);
+    }
+
+    /**
+     * Returns every compensation of an employee, oldest effective date first.
+     * @param employeeId
+     * @return
+     */
+    @GetMapping("/compensation/{employeeId}/history")
+    public List<Compensation> readHistory(@PathVariable String employeeId) {
+        LOG.debug("Received compensation history get request for employee id [{}]", employeeId);
+
+        return compensationService.readHistory(employeeId);
+    }
+
+    /**
+     * Returns the compensation in effect on a date for each of the given employee IDs.
+     * Employees without a compensation in effect on the date are left out.
+     * @param employeeIds
+     * @param date ISO date, e.g. 2020-01-31, defaults to the current compensation
+     * @return
+     */
+    @PostMapping("/compensation/asOf")
+    public List<Compensation> readAll(
+        @RequestBody List<String> employeeIds,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date date
+    ) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Received compensation as of [{}] request for {} employee id(s)", date, employeeIds.size());
+        }
 
-        return compensationService.read(employeeId);
+        return compensationService.readAll(employeeIds, date);
     }
 }
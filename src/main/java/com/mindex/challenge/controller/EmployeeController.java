@@ -1,38 +1,98 @@
 package com.mindex.challenge.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.data.BatchResult;
 import com.mindex.challenge.data.Employee;
 import com.mindex.challenge.service.EmployeeService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class EmployeeController {
     private static final Logger LOG = LoggerFactory.getLogger(EmployeeController.class);
 
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping("/employee")
     public Employee create(@RequestBody Employee employee) {
-        LOG.debug("Received employee create request for [{}]", employee);
+        LOG.debug("Received employee create request");
 
         return employeeService.create(employee);
     }
 
+    /**
+     * Returns the employee with its version tag as a strong ETag. When If-None-Match has the current tag,
+     * 304 is returned without reading the employee.
+     * @param id
+     * @param request
+     * @return
+     */
     @GetMapping("/employee/{id}")
-    public Employee read(@PathVariable String id) {
-        LOG.debug("Received employee create request for id [{}]", id);
+    public Employee read(@PathVariable String id, WebRequest request) {
+        LOG.debug("Received employee read request for id [{}]", id);
 
+        String versionTag = employeeService.readVersionTag(id);
+        if (versionTag != null && request.checkNotModified(versionTag)) {
+            return null;
+        }
         return employeeService.read(id);
     }
 
     @PutMapping("/employee/{id}")
     public Employee update(@PathVariable String id, @RequestBody Employee employee) {
-        LOG.debug("Received employee create request for id [{}] and employee [{}]", id, employee);
+        LOG.debug("Received employee update request for id [{}]", id);
 
         employee.setEmployeeId(id);
         return employeeService.update(employee);
     }
+
+    /**
+     * Inserts or replaces employees by employeeId from either a JSON array or newline-delimited JSON, read as a stream.
+     * @param body
+     * @return
+     */
+    @PostMapping(value = "/employee/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public BatchResult importAll(InputStream body) throws IOException {
+        LOG.debug("Received employee import request");
+
+        return employeeService.importAll(objectMapper.readerFor(Employee.class).readValues(body));
+    }
+
+    /**
+     * Returns every employee as newline-delimited JSON, streamed from a database cursor.
+     * @return
+     */
+    @GetMapping(value = "/employee/export", produces = "application/x-ndjson")
+    public StreamingResponseBody exportAll() {
+        LOG.debug("Received employee export request");
+
+        return outputStream -> {
+            try (Stream<Employee> employees = employeeService.exportAll();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                Iterator<Employee> iterator = employees.iterator();
+                while (iterator.hasNext()) {
+                    generator.writeObject(iterator.next());
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+    }
 }
@@ -1,31 +1,110 @@
 package com.mindex.challenge.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.data.Employee;
 import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.EmployeeService;
 import com.mindex.challenge.service.ReportingStructureService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ReportingStructureController {
     private static final Logger LOG = LoggerFactory.getLogger(EmployeeController.class);
 
     @Autowired
     private ReportingStructureService reportingStructureService;
 
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * should accept an employeeId and return the fully filled out
      * ReportingStructure for the specified employeeId.
      * ReportingStructure has two properties: employee and numberOfReports.
+     * The strong ETag is the revision of the employee's subtree, so when If-None-Match has the current revision,
+     * 304 is returned without reading the employee or counting reports.
      * @param id
+     * @param parallel Whether to count reports with a parallel traversal, for very large orgs
+     * @param request
      * @return
      */
     @GetMapping("/reportingStructure/{id}")
-    public ReportingStructure read(@PathVariable String id) {
+    public ReportingStructure read(
+        @PathVariable String id,
+        @RequestParam(defaultValue = "false") boolean parallel,
+        WebRequest request
+    ) {
         LOG.debug("Received reporting structure get request for id [{}]", id);
 
-        return reportingStructureService.read(id);
+        String revision = reportingStructureService.readRevision(id);
+        if (revision != null && request.checkNotModified(revision)) {
+            return null;
+        }
+        return reportingStructureService.read(id, parallel);
+    }
+
+    /**
+     * Returns the ReportingStructure of every given employeeId, in the same order.
+     * Results are streamed to the response as they are computed. An employeeId that cannot be
+     * read is returned as its employee stub with an error message instead.
+     * The body is checked before anything is streamed, so a malformed one fails with 400 rather than a broken 200.
+     * @param ids
+     * @return
+     */
+    @PostMapping(value = "/reportingStructure/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> readAll(@RequestBody List<String> ids) {
+        if (ids == null || ids.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Expected a JSON array of employee IDs");
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Received reporting structure batch request for {} id(s)", ids.size());
+        }
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                reportingStructureService.writeAll(ids, generator);
+            }
+        });
+    }
+
+    /**
+     * Returns the employee with every report under them expanded into a full employee, recursively.
+     * The tree is streamed to the response as it is read rather than built in memory first.
+     * The employee is read before anything is streamed, so an invalid ID fails the request the same way as
+     * reading a reporting structure does.
+     * @param id
+     * @param depth Number of levels of reports to expand, reports below are returned as ID stubs. Unlimited by default.
+     * @return
+     */
+    @GetMapping(value = "/reportingStructure/{id}/tree", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> readTree(@PathVariable String id, @RequestParam(defaultValue = "-1") int depth) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Received reporting tree get request for id [{}] and depth {}", id, depth);
+        }
+
+        Employee root = employeeService.read(id);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                reportingStructureService.writeTree(root, depth, generator);
+            }
+        });
     }
 }
@@ -3,8 +3,20 @@ package com.mindex.challenge.dao;
 import com.mindex.challenge.data.Employee;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface EmployeeRepository extends MongoRepository<Employee, String> {
+public interface EmployeeRepository extends MongoRepository<Employee, String>, EmployeeRepositoryCustom {
     Employee findByEmployeeId(String employeeId);
+    List<Employee> findByEmployeeIdIn(Collection<String> employeeIds);
+
+    /**
+     * @return Every employee, read through a database cursor. Must be closed.
+     */
+    @Query("{}")
+    Stream<Employee> streamAllBy();
 }
@@ -0,0 +1,13 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+
+import java.util.Collection;
+
+public interface EmployeeRepositoryCustom {
+    /**
+     * Inserts or replaces every employee by employeeId in a single unordered bulk write.
+     * @param employees
+     */
+    void upsertAll(Collection<Employee> employees);
+}
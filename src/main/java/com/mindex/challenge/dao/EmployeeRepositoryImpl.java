@@ -0,0 +1,43 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class EmployeeRepositoryImpl implements EmployeeRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public EmployeeRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void upsertAll(Collection<Employee> employees) {
+        if (employees.isEmpty()) {
+            return;
+        }
+
+        List<ReplaceOneModel<Document>> replacements = new ArrayList<ReplaceOneModel<Document>>(employees.size());
+        for (Employee employee : employees) {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(employee, document);
+            replacements.add(new ReplaceOneModel<Document>(
+                Filters.eq("_id", document.get("_id")),
+                document,
+                new ReplaceOptions().upsert(true)
+            ));
+        }
+
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Employee.class))
+            .bulkWrite(replacements, new BulkWriteOptions().ordered(false));
+    }
+}
@@ -0,0 +1,204 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.CompensationRecord;
+import com.mindex.challenge.data.Employee;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Funnels writes through a single writer thread, which applies every write queued since its last group
+ * and then commits once for the whole group. Callers block until the group holding their write is committed,
+ * so a write is durable when it returns, while concurrent requests share the cost of one commit.
+ * <p>
+ * Groups form naturally: nothing is held back while the writer is idle, and writes arriving while a group
+ * is being applied make up the next one. Writes are applied one by one in the order they were queued,
+ * so a failing write only fails its own caller.
+ */
+public class GroupCommitWriter {
+    private static final Logger LOG = LoggerFactory.getLogger(GroupCommitWriter.class);
+
+    private final EmployeeRepository employeeRepository;
+    private final CompensationRepository compensationRepository;
+    private final Runnable commit;
+    private final int maxGroupSize;
+
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<PendingWrite>();
+    private Thread writer;
+
+    /**
+     * @param employeeRepository
+     * @param compensationRepository
+     * @param commit Makes the writes applied so far durable, called once per group
+     * @param maxGroupSize Maximum number of writes applied before a commit
+     */
+    public GroupCommitWriter(EmployeeRepository employeeRepository, CompensationRepository compensationRepository,
+                             Runnable commit, int maxGroupSize) {
+        this.employeeRepository = employeeRepository;
+        this.compensationRepository = compensationRepository;
+        this.commit = commit;
+        this.maxGroupSize = Math.max(1, maxGroupSize);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer = new Thread(this::run, "group-commit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        writer.interrupt();
+        writer.join();
+    }
+
+    public Employee insert(Employee employee) {
+        return submit(new PendingWrite(WriteType.INSERT_EMPLOYEE, employee, null));
+    }
+
+    public Employee save(Employee employee) {
+        return submit(new PendingWrite(WriteType.SAVE_EMPLOYEE, employee, null));
+    }
+
+    public CompensationRecord insert(CompensationRecord compensation) {
+        return submit(new PendingWrite(WriteType.INSERT_COMPENSATION, compensation, null));
+    }
+
+    /**
+     * Applies a write that is already batched, such as a bulk import chunk, as part of the next group.
+     * @param write
+     */
+    public void execute(Runnable write) {
+        submit(new PendingWrite(WriteType.EXECUTE, null, write));
+    }
+
+    /**
+     * Commits writes that were already applied outside the writer, such as those of the reactive repositories,
+     * with the next group. Does not block the caller.
+     * @return Completes once the group is committed
+     */
+    public CompletableFuture<Void> commitAsync() {
+        PendingWrite write = enqueue(new PendingWrite(WriteType.COMMIT, null, null));
+        return write.result.thenApply(entity -> null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T submit(PendingWrite write) {
+        enqueue(write);
+
+        try {
+            return (T) write.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private PendingWrite enqueue(PendingWrite write) {
+        if (!writer.isAlive()) {
+            throw new IllegalStateException("Group commit writer is stopped");
+        }
+        queue.add(write);
+        return write;
+    }
+
+    private void run() {
+        List<PendingWrite> group = new ArrayList<PendingWrite>(maxGroupSize);
+        try {
+            while (true) {
+                group.add(queue.take());
+                queue.drainTo(group, maxGroupSize - 1);
+                applyAndCommit(group);
+                group.clear();
+            }
+        } catch (InterruptedException e) {
+            // Stopping, fail whatever was still queued
+            queue.drainTo(group);
+            for (PendingWrite write : group) {
+                write.result.completeExceptionally(new IllegalStateException("Group commit writer is stopped"));
+            }
+        }
+    }
+
+    private void applyAndCommit(List<PendingWrite> group) {
+        for (PendingWrite write : group) {
+            try {
+                apply(write);
+            } catch (RuntimeException e) {
+                write.result.completeExceptionally(e);
+            }
+        }
+
+        try {
+            commit.run();
+        } catch (RuntimeException e) {
+            for (PendingWrite write : group) {
+                write.result.completeExceptionally(e);
+            }
+            return;
+        }
+        for (PendingWrite write : group) {
+            // Writes that failed were already completed with their error
+            write.result.complete(write.entity);
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Committed group of {} write(s)", group.size());
+        }
+    }
+
+    private void apply(PendingWrite write) {
+        switch (write.type) {
+            case INSERT_EMPLOYEE:
+                employeeRepository.insert((Employee) write.entity);
+                break;
+            case SAVE_EMPLOYEE:
+                employeeRepository.save((Employee) write.entity);
+                break;
+            case INSERT_COMPENSATION:
+                compensationRepository.insert((CompensationRecord) write.entity);
+                break;
+            case EXECUTE:
+                write.write.run();
+                break;
+            case COMMIT:
+                // Already applied, only needs the commit
+                break;
+        }
+    }
+
+    private enum WriteType {
+        INSERT_EMPLOYEE,
+        SAVE_EMPLOYEE,
+        INSERT_COMPENSATION,
+        EXECUTE,
+        COMMIT
+    }
+
+    private static final class PendingWrite {
+        private final WriteType type;
+        private final Object entity;
+        private final Runnable write;
+        private final CompletableFuture<Object> result = new CompletableFuture<Object>();
+
+        PendingWrite(WriteType type, Object entity, Runnable write) {
+            this.type = type;
+            this.entity = entity;
+            this.write = write;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.CompensationRecord;
+
+import java.util.Date;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * {@link CompensationRepository} held in memory.
+ * Compensations have no ID of their own, so each is keyed by a generated ObjectId. Keys are sorted, which keeps
+ * {@link #findAll()} in insertion order like the database, so histories break ties on effective date the same way.
+ */
+public class InMemoryCompensationRepository extends InMemoryRepository<CompensationRecord> implements CompensationRepository {
+
+    public InMemoryCompensationRepository() {
+        super(new ConcurrentSkipListMap<String, CompensationRecord>());
+    }
+
+    @Override
+    protected String getId(CompensationRecord compensation) {
+        return null;
+    }
+
+    @Override
+    protected void setId(CompensationRecord compensation, String id) {
+    }
+
+    @Override
+    protected CompensationRecord copy(CompensationRecord compensation) {
+        CompensationRecord copy = new CompensationRecord(
+            compensation.getEmployeeId(),
+            compensation.getSalaryCents(),
+            compensation.getEffectiveDate() != null ? new Date(compensation.getEffectiveDate().getTime()) : null
+        );
+        copy.setVersion(compensation.getVersion());
+        return copy;
+    }
+}
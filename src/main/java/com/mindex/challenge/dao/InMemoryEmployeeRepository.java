@@ -0,0 +1,75 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * {@link EmployeeRepository} held in memory. Every query is by employeeId, so the map by ID is the only index.
+ */
+public class InMemoryEmployeeRepository extends InMemoryRepository<Employee> implements EmployeeRepository {
+
+    public InMemoryEmployeeRepository() {
+        super(new ConcurrentHashMap<String, Employee>());
+    }
+
+    @Override
+    protected String getId(Employee employee) {
+        return employee.getEmployeeId();
+    }
+
+    @Override
+    protected void setId(Employee employee, String id) {
+        employee.setEmployeeId(id);
+    }
+
+    @Override
+    protected Employee copy(Employee employee) {
+        Employee copy = new Employee();
+        copy.setEmployeeId(employee.getEmployeeId());
+        copy.setFirstName(employee.getFirstName());
+        copy.setLastName(employee.getLastName());
+        copy.setPosition(employee.getPosition());
+        copy.setDepartment(employee.getDepartment());
+        copy.setVersion(employee.getVersion());
+        if (employee.getDirectReports() != null) {
+            List<Employee> directReports = new ArrayList<Employee>(employee.getDirectReports().size());
+            for (Employee directReport : employee.getDirectReports()) {
+                directReports.add(directReport != null ? copy(directReport) : null);
+            }
+            copy.setDirectReports(directReports);
+        }
+        return copy;
+    }
+
+    @Override
+    public Employee findByEmployeeId(String employeeId) {
+        return get(employeeId);
+    }
+
+    @Override
+    public List<Employee> findByEmployeeIdIn(Collection<String> employeeIds) {
+        List<Employee> found = new ArrayList<Employee>(employeeIds.size());
+        for (String employeeId : employeeIds) {
+            Employee employee = get(employeeId);
+            if (employee != null) {
+                found.add(employee);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Stream<Employee> streamAllBy() {
+        return stream();
+    }
+
+    @Override
+    public void upsertAll(Collection<Employee> employees) {
+        saveAll(employees);
+    }
+}
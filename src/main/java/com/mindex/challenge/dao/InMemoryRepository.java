@@ -0,0 +1,369 @@
+package com.mindex.challenge.dao;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.support.ExampleMatcherAccessor;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * {@link MongoRepository} over a concurrent map in the heap, keyed by ID, used when datastore.mode is in-memory.
+ * Entities are copied on the way in and on the way out, so as with the database, changing an entity
+ * after saving or reading it does not change what is stored. Copies are plain field copies, nothing is encoded.
+ * An entity without an ID is given a new ObjectId, as the database would.
+ * <p>
+ * Sorting compares the values of the sorted properties, with nulls first as in the database.
+ * Query by example matches the top-level fields of the probe, following the {@link ExampleMatcher}'s
+ * null handling, ignored paths and string matching. Values other than strings are compared with equals.
+ * @param <T> Entity type
+ */
+public abstract class InMemoryRepository<T> implements MongoRepository<T, String> {
+
+    private final ConcurrentMap<String, T> entities;
+
+    /**
+     * @param entities Map to store entities in, which also decides the order of {@link #findAll()}
+     */
+    protected InMemoryRepository(ConcurrentMap<String, T> entities) {
+        this.entities = entities;
+    }
+
+    /**
+     * @return ID of the entity, or null if it has none yet
+     */
+    protected abstract String getId(T entity);
+
+    /**
+     * Assigns a generated ID to an entity that has none.
+     */
+    protected abstract void setId(T entity, String id);
+
+    /**
+     * @return Copy of an entity that shares no mutable state with it
+     */
+    protected abstract T copy(T entity);
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        String id = idOf(entity);
+        if (entities.putIfAbsent(id, copy(entity)) != null) {
+            throw new DuplicateKeyException("Duplicate key: " + id);
+        }
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> batch) {
+        List<S> inserted = new ArrayList<S>();
+        for (S entity : batch) {
+            inserted.add(insert(entity));
+        }
+        return inserted;
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        entities.put(idOf(entity), copy(entity));
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> batch) {
+        List<S> saved = new ArrayList<S>();
+        for (S entity : batch) {
+            saved.add(save(entity));
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        return Optional.ofNullable(get(id));
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return entities.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        List<T> all = new ArrayList<T>(entities.size());
+        for (T entity : entities.values()) {
+            all.add(copy(entity));
+        }
+        return all;
+    }
+
+    @Override
+    public Iterable<T> findAllById(Iterable<String> ids) {
+        List<T> found = new ArrayList<T>();
+        for (String id : ids) {
+            T entity = get(id);
+            if (entity != null) {
+                found.add(entity);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public long count() {
+        return entities.size();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        entities.remove(id);
+    }
+
+    @Override
+    public void delete(T entity) {
+        String id = getId(entity);
+        if (id != null) {
+            entities.remove(id);
+        }
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> batch) {
+        for (T entity : batch) {
+            delete(entity);
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        entities.clear();
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        List<T> all = findAll();
+        if (sort.isSorted()) {
+            all.sort(comparator(sort));
+        }
+        return all;
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        return page(findAll(pageable.getSort()), pageable);
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        List<S> found = findAll(example);
+        if (found.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, found.size());
+        }
+        return found.stream().findFirst();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends T> List<S> findAll(Example<S> example) {
+        List<S> found = new ArrayList<S>();
+        for (T entity : entities.values()) {
+            if (matches(example, entity)) {
+                found.add((S) copy(entity));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        List<S> found = findAll(example);
+        if (sort.isSorted()) {
+            found.sort(comparator(sort));
+        }
+        return found;
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        return page(findAll(example, pageable.getSort()), pageable);
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        long count = 0;
+        for (T entity : entities.values()) {
+            if (matches(example, entity)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        for (T entity : entities.values()) {
+            if (matches(example, entity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return ID of the entity, assigning a new one if it has none
+     */
+    private String idOf(T entity) {
+        String id = getId(entity);
+        if (id == null) {
+            id = new ObjectId().toHexString();
+            setId(entity, id);
+        }
+        return id;
+    }
+
+    /**
+     * @return Copy of the entity stored under the ID, or null
+     */
+    protected T get(String id) {
+        T entity = entities.get(id);
+        return entity != null ? copy(entity) : null;
+    }
+
+    /**
+     * @return Every stored entity in the order of the backing map, read lazily and copied one at a time as the
+     *         stream is consumed, so the collection is never held in memory at once. Weakly consistent with writes.
+     */
+    protected Stream<T> stream() {
+        return entities.values().stream().map(this::copy);
+    }
+
+    private static <S> Page<S> page(List<S> all, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<S>(all);
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        int to = Math.min(from + pageable.getPageSize(), all.size());
+        return new PageImpl<S>(new ArrayList<S>(all.subList(from, to)), pageable, all.size());
+    }
+
+    /**
+     * @return Comparator ordering entities by the sorted properties in turn, which may be nested paths
+     */
+    private static <S> Comparator<S> comparator(Sort sort) {
+        Comparator<S> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<S> byProperty = (a, b) -> compareValues(
+                PropertyAccessorFactory.forDirectFieldAccess(a).getPropertyValue(order.getProperty()),
+                PropertyAccessorFactory.forDirectFieldAccess(b).getPropertyValue(order.getProperty()),
+                order.isIgnoreCase()
+            );
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareValues(Object a, Object b, boolean ignoreCase) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        if (ignoreCase && a instanceof String && b instanceof String) {
+            return ((String) a).compareToIgnoreCase((String) b);
+        }
+        if (!(a instanceof Comparable)) {
+            throw new IllegalArgumentException("Cannot sort by values of " + a.getClass().getName());
+        }
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    /**
+     * @return Whether the stored entity is of the probe's type and matches its fields as the example's matcher asks
+     */
+    private static boolean matches(Example<?> example, Object entity) {
+        Object probe = example.getProbe();
+        if (!probe.getClass().isInstance(entity)) {
+            return false;
+        }
+
+        ExampleMatcher matcher = example.getMatcher();
+        ExampleMatcherAccessor accessor = new ExampleMatcherAccessor(matcher);
+        boolean all = matcher.isAllMatching();
+        boolean checked = false;
+
+        for (Field field : fields(probe.getClass())) {
+            String path = field.getName();
+            if (accessor.isIgnoredPath(path)) {
+                continue;
+            }
+            Object expected = accessor.getValueTransformerForPath(path)
+                .apply(Optional.ofNullable(ReflectionUtils.getField(field, probe)))
+                .orElse(null);
+            if (expected == null && matcher.getNullHandler() == ExampleMatcher.NullHandler.IGNORE) {
+                continue;
+            }
+
+            boolean match = matchesValue(accessor, path, expected, ReflectionUtils.getField(field, entity));
+            if (match != all) {
+                // First mismatch decides an all-match, first match an any-match
+                return match;
+            }
+            checked = true;
+        }
+        // Every field matched for an all-match, none did for an any-match, unless the probe had nothing to match
+        return all || !checked;
+    }
+
+    private static boolean matchesValue(ExampleMatcherAccessor accessor, String path, Object expected, Object actual) {
+        if (!(expected instanceof String) || !(actual instanceof String)) {
+            return Objects.equals(expected, actual);
+        }
+
+        String value = (String) actual;
+        String pattern = (String) expected;
+        boolean ignoreCase = accessor.isIgnoreCaseForPath(path);
+        switch (accessor.getStringMatcherForPath(path)) {
+            case STARTING:
+                return value.regionMatches(ignoreCase, 0, pattern, 0, pattern.length());
+            case ENDING:
+                return value.regionMatches(ignoreCase, value.length() - pattern.length(), pattern, 0, pattern.length());
+            case CONTAINING:
+                return ignoreCase
+                    ? value.toLowerCase().contains(pattern.toLowerCase())
+                    : value.contains(pattern);
+            case REGEX:
+                return Pattern.compile(pattern, ignoreCase ? Pattern.CASE_INSENSITIVE : 0).matcher(value).find();
+            default:
+                return ignoreCase ? value.equalsIgnoreCase(pattern) : value.equals(pattern);
+        }
+    }
+
+    /**
+     * @return Persisted fields of a type and its superclasses
+     */
+    private static List<Field> fields(Class<?> type) {
+        List<Field> fields = new ArrayList<Field>();
+        ReflectionUtils.doWithFields(type, field -> {
+            ReflectionUtils.makeAccessible(field);
+            fields.add(field);
+        }, field -> !Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers()));
+        return fields;
+    }
+}
@@ -0,0 +1,73 @@
+package com.mindex.challenge.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk write. Records are identified by their zero-based position in the request.
+ */
+public class BatchResult {
+    private int received;
+    private int written;
+    private List<BatchError> errors = new ArrayList<BatchError>();
+
+    public BatchResult() {
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getWritten() {
+        return written;
+    }
+
+    public void setWritten(int written) {
+        this.written = written;
+    }
+
+    public List<BatchError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<BatchError> errors) {
+        this.errors = errors;
+    }
+
+    public void addError(int index, String message) {
+        errors.add(new BatchError(index, message));
+    }
+
+    public static class BatchError {
+        private int index;
+        private String message;
+
+        public BatchError() {
+        }
+
+        public BatchError(int index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
@@ -6,6 +6,7 @@ public class Compensation {
     private Employee employee;
     private float salary;
     private Date effectiveDate;
+    private long version;
 
     public Compensation() {
     }
@@ -32,4 +33,15 @@ public class Compensation {
     public void setEffectiveDate(Date effectiveDate) {
         this.effectiveDate = effectiveDate;
     }
+
+    /**
+     * @return Version assigned when the compensation was created, higher for every later compensation
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,58 @@
+package com.mindex.challenge.data;
+
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Persisted form of a {@link Compensation}.
+ * Only the employee's ID is stored rather than the whole employee, and the salary is stored in cents.
+ */
+@Document(collection = "compensation")
+public class CompensationRecord {
+    private String employeeId;
+    private long salaryCents;
+    private Date effectiveDate;
+    private long version;
+
+    public CompensationRecord() {
+    }
+
+    public CompensationRecord(String employeeId, long salaryCents, Date effectiveDate) {
+        this.employeeId = employeeId;
+        this.salaryCents = salaryCents;
+        this.effectiveDate = effectiveDate;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public long getSalaryCents() {
+        return salaryCents;
+    }
+
+    public void setSalaryCents(long salaryCents) {
+        this.salaryCents = salaryCents;
+    }
+
+    public Date getEffectiveDate() {
+        return effectiveDate;
+    }
+
+    public void setEffectiveDate(Date effectiveDate) {
+        this.effectiveDate = effectiveDate;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,450 @@
+package com.mindex.challenge.graph;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.metrics.TraversalMetrics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory index of the reporting structure.
+ * Every employee ID is mapped to a dense int, and the direct reports of each employee
+ * are kept as a primitive int array, so traversals never need to go back to the database.
+ * The graph is loaded from {@link EmployeeRepository} on first use and kept in sync through {@link #put(Employee)}.
+ * Report counts are materialized per employee once computed. Changing the direct reports of an employee only
+ * invalidates the counts of that employee and its managers up the chain, which are recomputed on their next read.
+ * Other changes to an employee keep every count.
+ * The same walk stamps them with a new subtree revision, so a revision changes whenever anything under
+ * the employee does, and can be compared without reading or traversing anything.
+ */
+@Component
+public class OrgGraph {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrgGraph.class);
+
+    private static final int[] NO_REPORTS = new int[0];
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NOT_COUNTED = -1;
+    private static final long NO_VERSION = -1;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private TraversalMetrics traversalMetrics;
+
+    @Value("${reporting.parallel.threshold:4096}")
+    private int parallelThreshold;
+
+    @Value("${reporting.traversal.max-pooled-nodes:1048576}")
+    private int maxPooledNodes;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Traversal scratch space is reused rather than allocated per count. At most one traversal per processor is kept,
+    // and traversals grown past maxPooledNodes are dropped, so large counts do not pin their buffers
+    private final BlockingQueue<ReportTraversal> traversals =
+        new ArrayBlockingQueue<ReportTraversal>(Runtime.getRuntime().availableProcessors());
+
+    private final Map<String, Integer> indexById = new HashMap<String, Integer>();
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private int[][] reports = new int[INITIAL_CAPACITY][];
+    private int[][] managers = new int[INITIAL_CAPACITY][];
+    private int[] reportCounts = new int[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+    private long[] revisions = new long[INITIAL_CAPACITY];
+    // Versions and revisions restart with the process, so their tags are qualified with its start time
+    private final long epoch = System.currentTimeMillis();
+    private long revision;
+    // Nodes backed by an actual employee record, as opposed to IDs only seen in a directReports list
+    private final BitSet known = new BitSet();
+    private int size;
+    private volatile boolean loaded;
+
+    /**
+     * Discards the current graph and rebuilds it from every employee in the repository.
+     */
+    public void reload() {
+        lock.writeLock().lock();
+        try {
+            indexById.clear();
+            ids = new String[INITIAL_CAPACITY];
+            reports = new int[INITIAL_CAPACITY][];
+            managers = new int[INITIAL_CAPACITY][];
+            reportCounts = new int[INITIAL_CAPACITY];
+            versions = new long[INITIAL_CAPACITY];
+            revisions = new long[INITIAL_CAPACITY];
+            known.clear();
+            size = 0;
+
+            List<Employee> employees = employeeRepository.findAll();
+            if (employees != null) {
+                for (Employee employee : employees) {
+                    putInternal(indexOf(employee.getEmployeeId()), employee);
+                }
+            }
+            revision++;
+            Arrays.fill(revisions, 0, size, revision);
+            loaded = true;
+
+            LOG.debug("Loaded org graph with {} employee(s)", size);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an employee to the graph, or replaces its direct reports if it is already present.
+     * @param employee Employee as persisted
+     */
+    public void put(Employee employee) {
+        ensureLoaded();
+
+        lock.writeLock().lock();
+        try {
+            int node = indexOf(employee.getEmployeeId());
+            invalidate(node, putInternal(node, employee));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param employeeId
+     * @return Whether an employee record exists for the ID
+     */
+    public boolean contains(String employeeId) {
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            Integer index = indexById.get(employeeId);
+            return index != null && known.get(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param employeeId
+     * @return Version of the employee as last put, or -1 if there is no employee record for the ID
+     */
+    public long version(String employeeId) {
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            Integer index = indexById.get(employeeId);
+            return index != null && known.get(index) ? versions[index] : NO_VERSION;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a token that changes whenever the employee is put. Versions restart when employees are reloaded
+     * into a fresh datastore, so the token is qualified with the start time of the process, like revisions.
+     * @param employeeId
+     * @return Version tag, or null if there is no employee record for the ID
+     */
+    public String versionTag(String employeeId) {
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            Integer index = indexById.get(employeeId);
+            if (index == null || !known.get(index)) {
+                return null;
+            }
+            return Long.toHexString(epoch) + "-" + versions[index];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a token that changes whenever the employee or anyone reporting to them, directly or not, is put.
+     * @param employeeId
+     * @return Subtree revision, or null if there is no employee record for the ID
+     */
+    public String revision(String employeeId) {
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            Integer index = indexById.get(employeeId);
+            if (index == null || !known.get(index)) {
+                return null;
+            }
+            return Long.toHexString(epoch) + "-" + revisions[index];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param employeeIds
+     * @return Direct report IDs of every given employee that has a record, keyed by ID. IDs without one are left out.
+     */
+    public Map<String, List<String>> directReports(Collection<String> employeeIds) {
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            Map<String, List<String>> directReports = new HashMap<String, List<String>>();
+            for (String employeeId : employeeIds) {
+                Integer index = indexById.get(employeeId);
+                if (index == null || !known.get(index)) {
+                    continue;
+                }
+                List<String> dReports = new ArrayList<String>(reports[index].length);
+                for (int dReport : reports[index]) {
+                    dReports.add(ids[dReport]);
+                }
+                directReports.put(employeeId, dReports);
+            }
+            return directReports;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param employeeId
+     * @return Whether the employee has a materialized count that is still valid, so counting needs no traversal
+     */
+    public boolean isCounted(String employeeId) {
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            Integer index = indexById.get(employeeId);
+            return index != null && known.get(index) && reportCounts[index] != NOT_COUNTED;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of distinct reports for a given employee.
+     * Served from the materialized count when it is still valid, otherwise recomputed and stored.
+     * @param employeeId
+     * @return Count of distinct reports
+     */
+    public int countReports(String employeeId) {
+        return countReports(employeeId, false);
+    }
+
+    /**
+     * Returns the number of distinct reports for a given employee.
+     * Served from the materialized count when it is still valid, otherwise recomputed and stored.
+     * @param employeeId
+     * @param parallel Whether to recompute the count with a fork/join traversal.
+     *                 Graphs smaller than the parallel threshold are always traversed sequentially.
+     * @return Count of distinct reports
+     */
+    public int countReports(String employeeId, boolean parallel) {
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            Integer root = indexById.get(employeeId);
+            if (root == null || !known.get(root)) {
+                throw new RuntimeException("Invalid employeeId: " + employeeId);
+            }
+
+            int count = reportCounts[root];
+            if (count == NOT_COUNTED) {
+                // Racing readers may both compute the count, but always store the same value
+                count = parallel && size >= parallelThreshold ? traverseParallel(root) : traverse(root);
+                reportCounts[root] = count;
+                traversalMetrics.record(count + 1);
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts number of reports for a given node using a breadth-first search over the graph.
+     * Keeps track of already viewed employees to prevent loops.
+     * Must be called while holding the read lock.
+     */
+    private int traverse(int root) {
+        ReportTraversal traversal = traversals.poll();
+        if (traversal == null) {
+            traversal = new ReportTraversal();
+        }
+        try {
+            return traversal.count(root, reports, known, ids, size);
+        } finally {
+            if (traversal.capacity() <= maxPooledNodes) {
+                traversals.offer(traversal);
+            }
+        }
+    }
+
+    /**
+     * Counts number of reports for a given node by splitting the graph across the fork/join common pool.
+     * Must be called while holding the read lock.
+     */
+    private int traverseParallel(int root) {
+        return new ParallelReportTraversal(reports, known, ids, size)
+            .count(root, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @return Number of employee IDs in the graph, including IDs only referenced as direct reports
+     */
+    public int size() {
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reload();
+                }
+            }
+        }
+    }
+
+    /**
+     * Must be called while holding the write lock.
+     * @param node Index of the employee
+     * @return Whether the put can change report counts, i.e. the employee was only referenced until now
+     *         or its direct reports changed
+     */
+    private boolean putInternal(int node, Employee employee) {
+        boolean wasKnown = known.get(node);
+        known.set(node);
+        versions[node] = employee.getVersion() == null ? 0 : employee.getVersion();
+
+        int[] dReports = NO_REPORTS;
+        List<Employee> directReports = employee.getDirectReports();
+        if (directReports != null && !directReports.isEmpty()) {
+            dReports = new int[directReports.size()];
+            for (int i = 0; i < dReports.length; i++) {
+                dReports[i] = indexOf(directReports.get(i).getEmployeeId());
+            }
+        }
+
+        if (wasKnown && Arrays.equals(reports[node], dReports)) {
+            return false;
+        }
+
+        for (int dReport : reports[node]) {
+            managers[dReport] = remove(managers[dReport], node);
+        }
+        for (int dReport : dReports) {
+            managers[dReport] = append(managers[dReport], node);
+        }
+        reports[node] = dReports;
+
+        return true;
+    }
+
+    /**
+     * Moves a node and every node it reports to, directly or not, to a new subtree revision,
+     * and invalidates their materialized counts if the change can affect them.
+     * Only the managers of the changed node are touched, so a change costs O(depth) in a tree.
+     * Must be called while holding the write lock.
+     * @param node Changed node
+     * @param counts Whether to invalidate counts, which is only needed when reports changed. Other edits,
+     *               such as a new name or position, keep every count so they are not recounted on the next read.
+     */
+    private void invalidate(int node, boolean counts) {
+        revision++;
+        BitSet visited = new BitSet();
+        ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+
+        visited.set(node);
+        queue.add(node);
+
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            if (counts) {
+                reportCounts[current] = NOT_COUNTED;
+            }
+            revisions[current] = revision;
+            for (int manager : managers[current]) {
+                // Managers may form a loop, so only walk each once
+                if (!visited.get(manager)) {
+                    visited.set(manager);
+                    queue.add(manager);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the index for an employee ID, allocating a new one if the ID has not been seen.
+     * Must be called while holding the write lock.
+     */
+    private int indexOf(String employeeId) {
+        Integer index = indexById.get(employeeId);
+        if (index != null) {
+            return index;
+        }
+
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            reports = Arrays.copyOf(reports, size * 2);
+            managers = Arrays.copyOf(managers, size * 2);
+            reportCounts = Arrays.copyOf(reportCounts, size * 2);
+            versions = Arrays.copyOf(versions, size * 2);
+            revisions = Arrays.copyOf(revisions, size * 2);
+        }
+        ids[size] = employeeId;
+        reports[size] = NO_REPORTS;
+        managers[size] = NO_REPORTS;
+        reportCounts[size] = NOT_COUNTED;
+        versions[size] = NO_VERSION;
+        revisions[size] = revision;
+        indexById.put(employeeId, size);
+        return size++;
+    }
+
+    private static int[] append(int[] nodes, int node) {
+        int[] appended = Arrays.copyOf(nodes, nodes.length + 1);
+        appended[nodes.length] = node;
+        return appended;
+    }
+
+    private static int[] remove(int[] nodes, int node) {
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i] == node) {
+                int[] removed = new int[nodes.length - 1];
+                System.arraycopy(nodes, 0, removed, 0, i);
+                System.arraycopy(nodes, i + 1, removed, i, nodes.length - i - 1);
+                return removed;
+            }
+        }
+        return nodes;
+    }
+}
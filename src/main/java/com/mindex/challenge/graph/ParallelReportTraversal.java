@@ -0,0 +1,141 @@
+package com.mindex.challenge.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fork/join traversal over the dense int indexes of an {@link OrgGraph}.
+ * Each task walks its pending nodes depth-first. Every {@value #SPLIT_INTERVAL} nodes, while the worker has
+ * fewer than {@value #MAX_SURPLUS} tasks queued beyond what idle workers can take, the oldest half of its pending
+ * nodes is forked off as a new task. Those are the nodes closest to the root, so the forked task gets the
+ * largest unwalked subtrees. Splitting depends on the shape of the work rather than on how many nodes are pending,
+ * so balanced and deep orgs split as soon as they branch, while a plain chain, which cannot be split, never does.
+ * Whether to traverse in parallel at all is decided by the caller, see {@link OrgGraph#countReports(String, boolean)}.
+ * Visited nodes are claimed with a CAS on a shared bitset, so shared reports and loops are only counted once.
+ * Instances are single use.
+ */
+class ParallelReportTraversal {
+
+    // Nodes a task walks between checks for whether to split
+    private static final int SPLIT_INTERVAL = 64;
+    // Queued tasks beyond which a worker stops splitting, as in the parallel streams
+    private static final int MAX_SURPLUS = 3;
+
+    private final int[][] reports;
+    private final BitSet known;
+    private final String[] ids;
+    private final AtomicLongArray visited;
+    private final AtomicInteger forks = new AtomicInteger();
+
+    /**
+     * @param reports Direct reports of every node
+     * @param known Nodes backed by an employee record
+     * @param ids Employee ID of every node, used for error messages
+     * @param size Number of nodes in the graph
+     */
+    ParallelReportTraversal(int[][] reports, BitSet known, String[] ids, int size) {
+        this.reports = reports;
+        this.known = known;
+        this.ids = ids;
+        this.visited = new AtomicLongArray((size + 63) >>> 6);
+    }
+
+    /**
+     * Counts the distinct reports reachable from a node.
+     * @param root Index of the employee to count reports for
+     * @param pool Pool to run the traversal in
+     * @return Count of reports
+     */
+    int count(int root, ForkJoinPool pool) {
+        visit(root);
+        return pool.invoke(new TraversalTask(new int[]{root}, 1));
+    }
+
+    /**
+     * @return Number of tasks forked by the traversal so far
+     */
+    int forks() {
+        return forks.get();
+    }
+
+    /**
+     * @return Whether this call claimed the node, i.e. it was not yet visited
+     */
+    private boolean visit(int node) {
+        int word = node >>> 6;
+        long mask = 1L << node;
+        while (true) {
+            long current = visited.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (visited.compareAndSet(word, current, current | mask)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Walks the given pending nodes and returns the number of nodes it newly claimed.
+     */
+    private final class TraversalTask extends RecursiveTask<Integer> {
+
+        private int[] pending;
+        private int top;
+
+        TraversalTask(int[] pending, int top) {
+            this.pending = pending;
+            this.top = top;
+        }
+
+        @Override
+        protected Integer compute() {
+            List<TraversalTask> tasks = new ArrayList<TraversalTask>();
+            int claimed = 0;
+            int walked = 0;
+
+            while (top > 0) {
+                int node = pending[--top];
+                if (!known.get(node)) {
+                    throw new RuntimeException("Invalid employeeId: " + ids[node]);
+                }
+                for (int dReport : reports[node]) {
+                    if (visit(dReport)) {
+                        claimed++;
+                        push(dReport);
+                    }
+                }
+
+                if (++walked % SPLIT_INTERVAL == 0 && top > 1 && getSurplusQueuedTaskCount() < MAX_SURPLUS) {
+                    // Hand the oldest half of the pending nodes to another worker
+                    int half = top / 2;
+                    TraversalTask fork = new TraversalTask(Arrays.copyOf(pending, half), half);
+                    fork.fork();
+                    tasks.add(fork);
+                    forks.incrementAndGet();
+
+                    System.arraycopy(pending, half, pending, 0, top - half);
+                    top -= half;
+                }
+            }
+
+            for (TraversalTask fork : tasks) {
+                claimed += fork.join();
+            }
+            return claimed;
+        }
+
+        private void push(int node) {
+            if (top == pending.length) {
+                pending = Arrays.copyOf(pending, Math.max(16, top * 2));
+            }
+            pending[top++] = node;
+        }
+    }
+}
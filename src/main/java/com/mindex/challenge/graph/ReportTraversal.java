@@ -0,0 +1,82 @@
+package com.mindex.challenge.graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Breadth-first traversal over the dense int indexes of an {@link OrgGraph}.
+ * Visited nodes are tracked in a bitset and the queue is a plain int array. Since every node is
+ * queued exactly once, the queue never wraps and doubles as the list of visited nodes, which lets
+ * the bitset be cleared in O(visited) so one instance can be reused across traversals.
+ * Instances are not thread safe.
+ */
+class ReportTraversal {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] visited = new long[0];
+    private int[] queue = new int[INITIAL_CAPACITY];
+
+    /**
+     * Counts the distinct reports reachable from a node.
+     * @param root Index of the employee to count reports for
+     * @param reports Direct reports of every node
+     * @param known Nodes backed by an employee record
+     * @param ids Employee ID of every node, used for error messages
+     * @param size Number of nodes in the graph
+     * @return Count of reports
+     */
+    int count(int root, int[][] reports, BitSet known, String[] ids, int size) {
+        if (visited.length << 6 < size) {
+            visited = new long[(size + 63) >>> 6];
+        }
+
+        int head = 0;
+        int tail = 0;
+        try {
+            visit(root);
+            queue[tail++] = root;
+
+            while (head < tail) {
+                int node = queue[head++];
+                if (!known.get(node)) {
+                    throw new RuntimeException("Invalid employeeId: " + ids[node]);
+                }
+                for (int dReport : reports[node]) {
+                    if (visit(dReport)) {
+                        if (tail == queue.length) {
+                            queue = Arrays.copyOf(queue, tail * 2);
+                        }
+                        queue[tail++] = dReport;
+                    }
+                }
+            }
+            // Root is in visited, so reduce count by 1
+            return tail - 1;
+        } finally {
+            for (int i = 0; i < tail; i++) {
+                visited[queue[i] >>> 6] = 0L;
+            }
+        }
+    }
+
+    /**
+     * @return Number of nodes the buffers hold without growing, which bounds the memory they retain
+     */
+    int capacity() {
+        return Math.max(visited.length << 6, queue.length);
+    }
+
+    /**
+     * @return Whether the node was not yet visited
+     */
+    private boolean visit(int node) {
+        int word = node >>> 6;
+        long mask = 1L << node;
+        if ((visited[word] & mask) != 0) {
+            return false;
+        }
+        visited[word] |= mask;
+        return true;
+    }
+}
@@ -0,0 +1,81 @@
+package com.mindex.challenge.metrics;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Counts calls to the employee and compensation repositories, in total as repository.calls tagged by repository
+ * and method, and per request as the repository.calls.per.request distribution.
+ * Per request counts only include calls made on the request thread between {@link #begin()} and {@link #end()},
+ * so lookups fanned out to the lookup executor are only counted in the total.
+ * Counters are registered on the first call of each method and cached, so a call only increments one.
+ */
+@Aspect
+@Component
+public class RepositoryCallCounter {
+
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary callsPerRequest;
+    private final ThreadLocal<int[]> requestCalls = new ThreadLocal<int[]>();
+    // Counters by method name, one map per repository
+    private final ConcurrentMap<String, Counter> employeeCalls = new ConcurrentHashMap<String, Counter>();
+    private final ConcurrentMap<String, Counter> compensationCalls = new ConcurrentHashMap<String, Counter>();
+
+    public RepositoryCallCounter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.callsPerRequest = DistributionSummary.builder("repository.calls.per.request")
+            .description("Repository calls made while handling a request")
+            .publishPercentiles(0.5, 0.99, 0.999)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    @Around("target(com.mindex.challenge.dao.EmployeeRepository) || target(com.mindex.challenge.dao.CompensationRepository)")
+    public Object count(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        boolean employee = joinPoint.getTarget() instanceof EmployeeRepository;
+        ConcurrentMap<String, Counter> counters = employee ? employeeCalls : compensationCalls;
+
+        Counter counter = counters.get(method);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(method, name -> Counter.builder("repository.calls")
+                .tag("repository", employee ? "employee" : "compensation")
+                .tag("method", name)
+                .register(meterRegistry));
+        }
+        counter.increment();
+
+        int[] calls = requestCalls.get();
+        if (calls != null) {
+            calls[0]++;
+        }
+        return joinPoint.proceed();
+    }
+
+    /**
+     * Starts counting the repository calls of a request on the current thread.
+     */
+    public void begin() {
+        requestCalls.set(new int[1]);
+    }
+
+    /**
+     * Records the repository calls of the request on the current thread.
+     */
+    public void end() {
+        int[] calls = requestCalls.get();
+        requestCalls.remove();
+        if (calls != null) {
+            callsPerRequest.record(calls[0]);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.mindex.challenge.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Scopes {@link RepositoryCallCounter} to each servlet request.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RepositoryCallFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private RepositoryCallCounter repositoryCallCounter;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        repositoryCallCounter.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            repositoryCallCounter.end();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.mindex.challenge.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Nodes visited by each report count traversal, as the reporting.traversal.nodes distribution
+ * and the reporting.traversal.nodes.last gauge. Counts served without a traversal are not recorded.
+ */
+@Component
+public class TraversalMetrics {
+
+    private final DistributionSummary nodes;
+    private final AtomicInteger lastNodes = new AtomicInteger();
+
+    public TraversalMetrics(MeterRegistry meterRegistry) {
+        this.nodes = DistributionSummary.builder("reporting.traversal.nodes")
+            .description("Nodes visited per report count traversal")
+            .publishPercentiles(0.5, 0.99, 0.999)
+            .register(meterRegistry);
+        meterRegistry.gauge("reporting.traversal.nodes.last", lastNodes);
+    }
+
+    /**
+     * @param visited Number of nodes visited by a traversal, including its root
+     */
+    public void record(int visited) {
+        nodes.record(visited);
+        lastNodes.set(visited);
+    }
+}
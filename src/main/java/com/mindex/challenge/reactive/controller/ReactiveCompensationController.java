@@ -0,0 +1,55 @@
+package com.mindex.challenge.reactive.controller;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.reactive.service.ReactiveCompensationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+/**
+ * Reactive counterpart of CompensationController, served when spring.main.web-application-type is reactive.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCompensationController {
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveCompensationController.class);
+
+    @Autowired
+    private ReactiveCompensationService compensationService;
+
+    @PostMapping("/compensation")
+    public Mono<Compensation> create(@RequestBody Compensation compensation) {
+        LOG.debug("Received employee compensation create request");
+
+        return compensationService.create(compensation);
+    }
+
+    /**
+     * @param employeeId
+     * @param asOf ISO date, e.g. 2020-01-31
+     * @return
+     */
+    @GetMapping("/compensation/{employeeId}")
+    public Mono<Compensation> read(
+        @PathVariable String employeeId,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date asOf
+    ) {
+        LOG.debug("Received compensation get request for employee id [{}] as of [{}]", employeeId, asOf);
+
+        return compensationService.read(employeeId, asOf);
+    }
+
+    @GetMapping("/compensation/{employeeId}/history")
+    public Flux<Compensation> readHistory(@PathVariable String employeeId) {
+        LOG.debug("Received compensation history request for employee id [{}]", employeeId);
+
+        return compensationService.readHistory(employeeId);
+    }
+}
@@ -0,0 +1,44 @@
+package com.mindex.challenge.reactive.controller;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.reactive.service.ReactiveEmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of EmployeeController, served when spring.main.web-application-type is reactive.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEmployeeController {
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveEmployeeController.class);
+
+    @Autowired
+    private ReactiveEmployeeService employeeService;
+
+    @PostMapping("/employee")
+    public Mono<Employee> create(@RequestBody Employee employee) {
+        LOG.debug("Received employee create request");
+
+        return employeeService.create(employee);
+    }
+
+    @GetMapping("/employee/{id}")
+    public Mono<Employee> read(@PathVariable String id) {
+        LOG.debug("Received employee read request for id [{}]", id);
+
+        return employeeService.read(id);
+    }
+
+    @PutMapping("/employee/{id}")
+    public Mono<Employee> update(@PathVariable String id, @RequestBody Employee employee) {
+        LOG.debug("Received employee update request for id [{}]", id);
+
+        employee.setEmployeeId(id);
+        return employeeService.update(employee);
+    }
+}
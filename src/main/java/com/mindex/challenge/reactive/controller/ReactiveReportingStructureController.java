@@ -0,0 +1,29 @@
+package com.mindex.challenge.reactive.controller;
+
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.reactive.service.ReactiveReportingStructureService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of ReportingStructureController, served when spring.main.web-application-type is reactive.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveReportingStructureController {
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveReportingStructureController.class);
+
+    @Autowired
+    private ReactiveReportingStructureService reportingStructureService;
+
+    @GetMapping("/reportingStructure/{id}")
+    public Mono<ReportingStructure> read(@PathVariable String id) {
+        LOG.debug("Received reporting structure get request for id [{}]", id);
+
+        return reportingStructureService.read(id);
+    }
+}
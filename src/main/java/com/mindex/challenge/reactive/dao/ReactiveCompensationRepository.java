@@ -0,0 +1,19 @@
+package com.mindex.challenge.reactive.dao;
+
+import com.mindex.challenge.data.CompensationRecord;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+/**
+ * Queries are served by the employeeId_effectiveDate index created by MongoConfig.
+ */
+@Repository
+public interface ReactiveCompensationRepository extends ReactiveMongoRepository<CompensationRecord, String> {
+    Mono<CompensationRecord> findFirstByEmployeeIdOrderByEffectiveDateDesc(String employeeId);
+    Mono<CompensationRecord> findFirstByEmployeeIdAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(String employeeId, Date date);
+    Flux<CompensationRecord> findByEmployeeIdOrderByEffectiveDateAsc(String employeeId);
+}
@@ -0,0 +1,13 @@
+package com.mindex.challenge.reactive.service;
+
+import com.mindex.challenge.data.Compensation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+public interface ReactiveCompensationService {
+    Mono<Compensation> create(Compensation compensation);
+    Mono<Compensation> read(String employeeId, Date asOf);
+    Flux<Compensation> readHistory(String employeeId);
+}
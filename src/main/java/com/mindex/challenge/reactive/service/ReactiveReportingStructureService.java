@@ -0,0 +1,8 @@
+package com.mindex.challenge.reactive.service;
+
+import com.mindex.challenge.data.ReportingStructure;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveReportingStructureService {
+    Mono<ReportingStructure> read(String employeeId);
+}
@@ -0,0 +1,114 @@
+package com.mindex.challenge.reactive.service.impl;
+
+import com.mindex.challenge.dao.GroupCommitWriter;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationRecord;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.reactive.dao.ReactiveCompensationRepository;
+import com.mindex.challenge.reactive.dao.ReactiveEmployeeRepository;
+import com.mindex.challenge.reactive.service.ReactiveCompensationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+/**
+ * Reads compensations straight from the database through the employeeId_effectiveDate index,
+ * rather than from the in-memory histories used by the servlet stack.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCompensationServiceImpl implements ReactiveCompensationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveCompensationServiceImpl.class);
+
+    @Autowired
+    private ReactiveEmployeeRepository employeeRepository;
+
+    @Autowired
+    private ReactiveCompensationRepository compensationRepository;
+
+    // Only present when the backend needs explicit commits, see commit()
+    @Autowired(required = false)
+    private GroupCommitWriter groupCommitWriter;
+
+    @Override
+    public Mono<Compensation> create(Compensation compensation) {
+        String employeeId = compensation.getEmployee().getEmployeeId();
+        LOG.debug("Creating compensation for employee [{}]", employeeId);
+
+        return employeeRepository.existsById(employeeId)
+            .flatMap(exists -> exists
+                ? compensationRepository.insert(new CompensationRecord(
+                    employeeId,
+                    Math.round(compensation.getSalary() * 100d),
+                    compensation.getEffectiveDate()
+                  ))
+                : Mono.<CompensationRecord>error(new RuntimeException("Invalid employee: " + employeeId)))
+            .then(commit())
+            .thenReturn(compensation);
+    }
+
+    /**
+     * @param employeeId
+     * @param asOf Date the compensation must be in effect on, or null for the current compensation
+     * @return
+     */
+    @Override
+    public Mono<Compensation> read(String employeeId, Date asOf) {
+        LOG.debug("Looking for compensation for employee [{}] as of [{}]", employeeId, asOf);
+
+        Mono<CompensationRecord> record = asOf == null
+            ? compensationRepository.findFirstByEmployeeIdOrderByEffectiveDateDesc(employeeId)
+            : compensationRepository.findFirstByEmployeeIdAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(employeeId, asOf);
+
+        return record
+            .switchIfEmpty(checkEmployee(employeeId)
+                .then(Mono.defer(() -> Mono.<CompensationRecord>error(
+                    new RuntimeException("No compensation for employee id: " + employeeId)))))
+            .flatMap(this::toCompensation);
+    }
+
+    @Override
+    public Flux<Compensation> readHistory(String employeeId) {
+        LOG.debug("Looking for compensation history for employee [{}]", employeeId);
+
+        return compensationRepository.findByEmployeeIdOrderByEffectiveDateAsc(employeeId)
+            .switchIfEmpty(checkEmployee(employeeId).then(Mono.<CompensationRecord>empty()))
+            .concatMap(this::toCompensation);
+    }
+
+    /**
+     * Waits for the commit of the GroupCommitWriter's next group on the H2 backend, without holding a thread.
+     */
+    private Mono<Void> commit() {
+        return groupCommitWriter == null
+            ? Mono.empty()
+            : Mono.defer(() -> Mono.fromFuture(groupCommitWriter.commitAsync()));
+    }
+
+    private Mono<Void> checkEmployee(String employeeId) {
+        return employeeRepository.existsById(employeeId)
+            .flatMap(exists -> exists ? Mono.<Void>empty() : Mono.error(new RuntimeException("Invalid employeeId: " + employeeId)));
+    }
+
+    private Mono<Compensation> toCompensation(CompensationRecord record) {
+        Employee stub = new Employee();
+        stub.setEmployeeId(record.getEmployeeId());
+
+        return employeeRepository.findByEmployeeId(record.getEmployeeId())
+            .defaultIfEmpty(stub)
+            .map(employee -> {
+                Compensation compensation = new Compensation();
+                compensation.setEmployee(employee);
+                compensation.setSalary(record.getSalaryCents() / 100f);
+                compensation.setEffectiveDate(record.getEffectiveDate());
+                return compensation;
+            });
+    }
+}
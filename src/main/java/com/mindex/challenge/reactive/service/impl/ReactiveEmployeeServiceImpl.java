@@ -0,0 +1,94 @@
+package com.mindex.challenge.reactive.service.impl;
+
+import com.mindex.challenge.dao.GroupCommitWriter;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.reactive.dao.ReactiveEmployeeRepository;
+import com.mindex.challenge.reactive.service.ReactiveEmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveEmployeeServiceImpl.class);
+
+    @Autowired
+    private ReactiveEmployeeRepository employeeRepository;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    // Only present when the backend needs explicit commits, see commit()
+    @Autowired(required = false)
+    private GroupCommitWriter groupCommitWriter;
+
+    @Override
+    public Mono<Employee> create(Employee employee) {
+        employee.setEmployeeId(UUID.randomUUID().toString());
+        employee.setVersion(0L);
+        LOG.debug("Creating employee with id [{}]", employee.getEmployeeId());
+
+        return employeeRepository.insert(employee)
+            .flatMap(created -> commit().thenReturn(created));
+    }
+
+    @Override
+    public Mono<Employee> read(String id) {
+        LOG.debug("Reading employee with id [{}]", id);
+
+        return employeeRepository.findByEmployeeId(id)
+            .switchIfEmpty(Mono.defer(() -> Mono.error(new RuntimeException("Invalid employeeId: " + id))));
+    }
+
+    /**
+     * Replaces an employee with the version after the stored one. The version is incremented by the database
+     * in the same findAndModify as the replacement, so concurrent updates of the same employee each get their own.
+     * An employee that does not exist yet is inserted with version 0, or updated if it was inserted concurrently.
+     */
+    @Override
+    public Mono<Employee> update(Employee employee) {
+        String id = employee.getEmployeeId();
+        LOG.debug("Updating employee with id [{}]", id);
+
+        Update update = new Update()
+            .set("firstName", employee.getFirstName())
+            .set("lastName", employee.getLastName())
+            .set("position", employee.getPosition())
+            .set("department", employee.getDepartment())
+            .set("directReports", employee.getDirectReports())
+            .inc("version", 1L);
+
+        return mongoTemplate.findAndModify(query(where("_id").is(id)), update,
+                FindAndModifyOptions.options().returnNew(true), Employee.class)
+            .switchIfEmpty(Mono.defer(() -> {
+                employee.setVersion(0L);
+                return employeeRepository.insert(employee)
+                    .onErrorResume(DuplicateKeyException.class, e -> update(employee));
+            }))
+            .flatMap(updated -> commit().thenReturn(updated));
+    }
+
+    /**
+     * Reactive writes go to the database directly rather than through the blocking GroupCommitWriter,
+     * so on the H2 backend they only wait for the commit of the writer's next group, without holding a thread.
+     */
+    private Mono<Void> commit() {
+        return groupCommitWriter == null
+            ? Mono.empty()
+            : Mono.defer(() -> Mono.fromFuture(groupCommitWriter.commitAsync()));
+    }
+}
@@ -0,0 +1,109 @@
+package com.mindex.challenge.reactive.service.impl;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.reactive.dao.ReactiveEmployeeRepository;
+import com.mindex.challenge.reactive.service.ReactiveReportingStructureService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Counts reports by expanding the reporting structure one level at a time, with one findByEmployeeIdIn query
+ * per level, split into chunks of at most reporting.batch.size IDs. No thread is held while a level is read.
+ * Keeps track of already viewed employees to prevent loops.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveReportingStructureServiceImpl implements ReactiveReportingStructureService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveReportingStructureServiceImpl.class);
+
+    @Autowired
+    private ReactiveEmployeeRepository employeeRepository;
+
+    @Value("${reporting.batch.size:1000}")
+    private int batchSize;
+
+    @Override
+    public Mono<ReportingStructure> read(String employeeId) {
+        LOG.debug("Creating reporting structure for employee with id [{}]", employeeId);
+
+        return employeeRepository.findByEmployeeId(employeeId)
+            .switchIfEmpty(Mono.defer(() -> Mono.error(new RuntimeException("Invalid employeeId: " + employeeId))))
+            .flatMap(employee -> {
+                Set<String> visited = new HashSet<String>();
+                visited.add(employeeId);
+
+                return expand(nextLevel(employee, visited), visited)
+                    // First employee is in visited, so reduce size by 1
+                    .then(Mono.fromCallable(() -> {
+                        ReportingStructure reportingStructure = new ReportingStructure(employee);
+                        reportingStructure.setNumberOfReports(visited.size() - 1);
+                        return reportingStructure;
+                    }));
+            });
+    }
+
+    /**
+     * Reads a level of reports and continues with the level below it, until a level adds no new reports.
+     * Chunks are read one after the other, so visited is only ever touched by one signal at a time.
+     */
+    private Mono<Void> expand(List<String> level, Set<String> visited) {
+        if (level.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return Flux.fromIterable(level)
+            .buffer(batchSize)
+            .concatMap(batch -> employeeRepository.findByEmployeeIdIn(batch)
+                .collectList()
+                .flatMap(employees -> employees.size() < batch.size()
+                    ? Mono.<List<Employee>>error(new RuntimeException("Invalid employeeId: " + findMissing(batch, employees)))
+                    : Mono.just(employees)))
+            .collect(() -> new ArrayList<String>(), (List<String> next, List<Employee> employees) -> {
+                for (Employee e : employees) {
+                    next.addAll(nextLevel(e, visited));
+                }
+            })
+            .flatMap(next -> expand(next, visited));
+    }
+
+    /**
+     * @return Direct reports of the employee not yet visited, which are marked visited
+     */
+    private static List<String> nextLevel(Employee employee, Set<String> visited) {
+        List<String> next = new ArrayList<String>();
+        if (employee.getDirectReports() != null) {
+            for (Employee dReport : employee.getDirectReports()) {
+                if (visited.add(dReport.getEmployeeId())) {
+                    next.add(dReport.getEmployeeId());
+                }
+            }
+        }
+        return next;
+    }
+
+    private static String findMissing(List<String> ids, List<Employee> employees) {
+        Set<String> found = new HashSet<String>();
+        for (Employee e : employees) {
+            found.add(e.getEmployeeId());
+        }
+        for (String id : ids) {
+            if (!found.contains(id)) {
+                return id;
+            }
+        }
+        return null;
+    }
+}
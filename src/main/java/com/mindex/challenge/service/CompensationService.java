@@ -1,8 +1,17 @@
 package com.mindex.challenge.service;
 
+import com.mindex.challenge.data.BatchResult;
 import com.mindex.challenge.data.Compensation;
 
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
 public interface CompensationService {
     Compensation create(Compensation compensation);
+    BatchResult createAll(Iterator<Compensation> compensations);
     Compensation read(String employeeId);
+    Compensation read(String employeeId, Date asOf);
+    List<Compensation> readHistory(String employeeId);
+    List<Compensation> readAll(List<String> employeeIds, Date asOf);
 }
@@ -1,9 +1,16 @@
 package com.mindex.challenge.service;
 
+import com.mindex.challenge.data.BatchResult;
 import com.mindex.challenge.data.Employee;
 
+import java.util.Iterator;
+import java.util.stream.Stream;
+
 public interface EmployeeService {
     Employee create(Employee employee);
     Employee read(String id);
+    String readVersionTag(String id);
     Employee update(Employee employee);
+    BatchResult importAll(Iterator<Employee> employees);
+    Stream<Employee> exportAll();
 }
@@ -1,7 +1,16 @@
 package com.mindex.challenge.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.mindex.challenge.data.Employee;
 import com.mindex.challenge.data.ReportingStructure;
 
+import java.io.IOException;
+import java.util.List;
+
 public interface ReportingStructureService {
     ReportingStructure read(String employeeId);
+    ReportingStructure read(String employeeId, boolean parallel);
+    String readRevision(String employeeId);
+    void writeAll(List<String> employeeIds, JsonGenerator generator) throws IOException;
+    void writeTree(Employee root, int depth, JsonGenerator generator) throws IOException;
 }
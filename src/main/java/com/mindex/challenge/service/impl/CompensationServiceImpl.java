@@ -1,15 +1,30 @@
 package com.mindex.challenge.service.impl;
 
+import com.mindex.challenge.cache.EmployeeCache;
+import com.mindex.challenge.cache.CompensationHistories;
+import com.mindex.challenge.cache.CompensationHistory;
 import com.mindex.challenge.dao.CompensationRepository;
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.GroupCommitWriter;
+import com.mindex.challenge.data.BatchResult;
 import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationRecord;
 import com.mindex.challenge.data.Employee;
 import com.mindex.challenge.service.CompensationService;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
 @Service
 public class CompensationServiceImpl implements CompensationService {
     private static final Logger LOG = LoggerFactory.getLogger(CompensationServiceImpl.class);
@@ -20,34 +35,216 @@ public class CompensationServiceImpl implements CompensationService {
     @Autowired
     private CompensationRepository compensationRepository;
 
+    // Only present when the backend needs explicit commits, otherwise writes go to the repository directly
+    @Autowired(required = false)
+    private GroupCommitWriter groupCommitWriter;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private CompensationHistories compensationHistories;
+
+    @Value("${compensation.batch.chunk-size:1000}")
+    private int chunkSize;
+
     @Override
+    @Timed(value = "compensation.create", percentiles = {0.5, 0.99, 0.999}, histogram = true)
     public Compensation create(Compensation compensation) {
 
         // Checking if for valid employee
-        if (employeeRepository.findByEmployeeId(compensation.getEmployee().getEmployeeId()) == null) {
+        if (employeeCache.get(compensation.getEmployee().getEmployeeId(), employeeRepository::findByEmployeeId) == null) {
             throw new RuntimeException("Invalid employee: " + compensation.getEmployee().getEmployeeId());
         }
 
         LOG.debug("Creating compensation for employee [{}]", compensation.getEmployee().getEmployeeId());
-        compensationRepository.insert(compensation);
+        compensation.setVersion(compensationHistories.nextVersion());
+        CompensationRecord record = toRecord(compensation);
+        if (groupCommitWriter != null) {
+            groupCommitWriter.insert(record);
+        } else {
+            compensationRepository.insert(record);
+        }
+        compensationHistories.offer(record);
 
         return compensation;
     }
 
+    /**
+     * Creates compensations in chunks. Each chunk is validated with one query for all of its employee IDs,
+     * and its valid compensations are written with one insert. Invalid compensations are reported by position
+     * without stopping the rest. Records that cannot be parsed end the batch, since the input cannot be resynchronized.
+     */
     @Override
-    public Compensation read(String employeeId) {
-        LOG.debug("Looking for compensation for employee [{}]", employeeId);
-        Compensation compensation = compensationRepository.findByEmployeeId(employeeId);
+    public BatchResult createAll(Iterator<Compensation> compensations) {
+        BatchResult result = new BatchResult();
+        List<Compensation> chunk = new ArrayList<Compensation>(chunkSize);
+
+        while (true) {
+            Compensation compensation;
+            try {
+                if (!compensations.hasNext()) {
+                    break;
+                }
+                compensation = compensations.next();
+            } catch (RuntimeException e) {
+                result.addError(result.getReceived(), "Unreadable compensation: " + e.getMessage());
+                break;
+            }
+
+            chunk.add(compensation);
+            result.setReceived(result.getReceived() + 1);
+            if (chunk.size() == chunkSize) {
+                createChunk(chunk, result.getReceived() - chunk.size(), result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            createChunk(chunk, result.getReceived() - chunk.size(), result);
+        }
 
-        if (compensation == null) {
-            Employee employee = employeeRepository.findByEmployeeId(employeeId);
-            if (employee == null) {
-                throw new RuntimeException("Invalid employeeId: " + employeeId);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Created {} of {} compensation(s) in batch", result.getWritten(), result.getReceived());
+        }
+        return result;
+    }
+
+    /**
+     * @param chunk
+     * @param offset Position of the first compensation of the chunk in the batch
+     * @param result
+     */
+    private void createChunk(List<Compensation> chunk, int offset, BatchResult result) {
+        Set<String> employeeIds = new HashSet<String>();
+        for (Compensation compensation : chunk) {
+            if (compensation.getEmployee() != null && compensation.getEmployee().getEmployeeId() != null) {
+                employeeIds.add(compensation.getEmployee().getEmployeeId());
+            }
+        }
+
+        Set<String> validEmployeeIds = new HashSet<String>();
+        for (Employee employee : employeeRepository.findByEmployeeIdIn(employeeIds)) {
+            validEmployeeIds.add(employee.getEmployeeId());
+        }
+
+        List<CompensationRecord> records = new ArrayList<CompensationRecord>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Compensation compensation = chunk.get(i);
+            if (compensation.getEmployee() == null || compensation.getEmployee().getEmployeeId() == null) {
+                result.addError(offset + i, "Missing employee");
+            } else if (!validEmployeeIds.contains(compensation.getEmployee().getEmployeeId())) {
+                result.addError(offset + i, "Invalid employee: " + compensation.getEmployee().getEmployeeId());
             } else {
-                throw new RuntimeException("No compensation for employee id: " + employeeId);
+                compensation.setVersion(compensationHistories.nextVersion());
+                records.add(toRecord(compensation));
+            }
+        }
+
+        if (!records.isEmpty()) {
+            if (groupCommitWriter != null) {
+                groupCommitWriter.execute(() -> compensationRepository.insert(records));
+            } else {
+                compensationRepository.insert(records);
+            }
+            for (CompensationRecord record : records) {
+                compensationHistories.offer(record);
+            }
+            result.setWritten(result.getWritten() + records.size());
+        }
+    }
+
+    @Override
+    public Compensation read(String employeeId) {
+        return read(employeeId, null);
+    }
+
+    /**
+     * @param employeeId
+     * @param asOf Date the compensation must be in effect on, or null for the current compensation
+     * @return
+     */
+    @Override
+    @Timed(value = "compensation.read", percentiles = {0.5, 0.99, 0.999}, histogram = true)
+    public Compensation read(String employeeId, Date asOf) {
+        LOG.debug("Looking for compensation for employee [{}] as of [{}]", employeeId, asOf);
+        CompensationHistory history = compensationHistories.get(employeeId);
+        CompensationRecord record = asOf == null ? history.latest() : history.asOf(asOf);
+
+        if (record == null) {
+            checkEmployee(employeeId);
+            throw new RuntimeException("No compensation for employee id: " + employeeId);
+        }
+
+        return toCompensation(record);
+    }
+
+    @Override
+    public List<Compensation> readHistory(String employeeId) {
+        LOG.debug("Looking for compensation history for employee [{}]", employeeId);
+        List<CompensationRecord> records = compensationHistories.get(employeeId).all();
+
+        if (records.isEmpty()) {
+            checkEmployee(employeeId);
+        }
+
+        List<Compensation> compensations = new ArrayList<Compensation>(records.size());
+        for (CompensationRecord record : records) {
+            compensations.add(toCompensation(record));
+        }
+        return compensations;
+    }
+
+    /**
+     * Employees without a compensation in effect on the date are left out.
+     */
+    @Override
+    public List<Compensation> readAll(List<String> employeeIds, Date asOf) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Looking for compensation for {} employee(s) as of [{}]", employeeIds.size(), asOf);
+        }
+
+        List<Compensation> compensations = new ArrayList<Compensation>(employeeIds.size());
+        for (String employeeId : employeeIds) {
+            CompensationHistory history = compensationHistories.get(employeeId);
+            CompensationRecord record = asOf == null ? history.latest() : history.asOf(asOf);
+            if (record != null) {
+                compensations.add(toCompensation(record));
             }
         }
+        return compensations;
+    }
+
+    private void checkEmployee(String employeeId) {
+        if (employeeCache.get(employeeId, employeeRepository::findByEmployeeId) == null) {
+            throw new RuntimeException("Invalid employeeId: " + employeeId);
+        }
+    }
+
+    private static CompensationRecord toRecord(Compensation compensation) {
+        CompensationRecord record = new CompensationRecord(
+            compensation.getEmployee().getEmployeeId(),
+            Math.round(compensation.getSalary() * 100d),
+            compensation.getEffectiveDate()
+        );
+        record.setVersion(compensation.getVersion());
+        return record;
+    }
+
+    /**
+     * Resolves the employee of a persisted compensation from the employee cache.
+     */
+    private Compensation toCompensation(CompensationRecord record) {
+        Employee employee = employeeCache.get(record.getEmployeeId(), employeeRepository::findByEmployeeId);
+        if (employee == null) {
+            employee = new Employee();
+            employee.setEmployeeId(record.getEmployeeId());
+        }
 
+        Compensation compensation = new Compensation();
+        compensation.setEmployee(employee);
+        compensation.setSalary(record.getSalaryCents() / 100f);
+        compensation.setEffectiveDate(record.getEffectiveDate());
+        compensation.setVersion(record.getVersion());
         return compensation;
     }
 }
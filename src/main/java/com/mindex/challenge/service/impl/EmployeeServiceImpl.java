@@ -1,13 +1,26 @@
 package com.mindex.challenge.service.impl;
 
+import com.mindex.challenge.cache.EmployeeCache;
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.GroupCommitWriter;
+import com.mindex.challenge.data.BatchResult;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.graph.OrgGraph;
 import com.mindex.challenge.service.EmployeeService;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
@@ -17,21 +30,52 @@ public class EmployeeServiceImpl implements EmployeeService {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    // Only present when the backend needs explicit commits, otherwise writes go to the repository directly
+    @Autowired(required = false)
+    private GroupCommitWriter groupCommitWriter;
+
+    @Autowired
+    private OrgGraph orgGraph;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Value("${employee.import.chunk-size:1000}")
+    private int chunkSize;
+
+    // Updates and imports of the same employee are serialized, so that each one gets the next version
+    private final ReentrantLock[] updateLocks = new ReentrantLock[64];
+
+    public EmployeeServiceImpl() {
+        for (int i = 0; i < updateLocks.length; i++) {
+            updateLocks[i] = new ReentrantLock();
+        }
+    }
+
     @Override
+    @Timed(value = "employee.create", percentiles = {0.5, 0.99, 0.999}, histogram = true)
     public Employee create(Employee employee) {
-        LOG.debug("Creating employee [{}]", employee);
-
         employee.setEmployeeId(UUID.randomUUID().toString());
-        employeeRepository.insert(employee);
+        employee.setVersion(0L);
+        LOG.debug("Creating employee with id [{}]", employee.getEmployeeId());
+
+        if (groupCommitWriter != null) {
+            groupCommitWriter.insert(employee);
+        } else {
+            employeeRepository.insert(employee);
+        }
+        employeeCache.put(employee);
+        orgGraph.put(employee);
 
         return employee;
     }
 
     @Override
+    @Timed(value = "employee.read", percentiles = {0.5, 0.99, 0.999}, histogram = true)
     public Employee read(String id) {
-        LOG.debug("Creating employee with id [{}]", id);
+        LOG.debug("Reading employee with id [{}]", id);
 
-        Employee employee = employeeRepository.findByEmployeeId(id);
+        Employee employee = employeeCache.get(id, employeeRepository::findByEmployeeId);
 
         if (employee == null) {
             throw new RuntimeException("Invalid employeeId: " + id);
@@ -40,10 +84,134 @@ public class EmployeeServiceImpl implements EmployeeService {
         return employee;
     }
 
+    /**
+     * Reads the version tag of an employee from the org graph, without reading the employee itself.
+     * The org graph is updated last on every write, so the employee read right after is at least this version.
+     * @param id
+     * @return Current version tag, or null if there is no such employee
+     */
+    @Override
+    public String readVersionTag(String id) {
+        return orgGraph.versionTag(id);
+    }
+
+    /**
+     * Replaces an employee with the next version.
+     */
     @Override
+    @Timed(value = "employee.update", percentiles = {0.5, 0.99, 0.999}, histogram = true)
     public Employee update(Employee employee) {
-        LOG.debug("Updating employee [{}]", employee);
+        LOG.debug("Updating employee with id [{}]", employee.getEmployeeId());
+
+        ReentrantLock updateLock = updateLocks[updateLock(employee.getEmployeeId())];
+        updateLock.lock();
+        try {
+            employee.setVersion(orgGraph.version(employee.getEmployeeId()) + 1);
+
+            Employee updatedEmployee = groupCommitWriter != null
+                ? groupCommitWriter.save(employee)
+                : employeeRepository.save(employee);
+            employeeCache.put(updatedEmployee);
+            orgGraph.put(updatedEmployee);
+
+            return updatedEmployee;
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Inserts or replaces employees by employeeId in chunks, each written with one bulk write.
+     * Imported employees get the next version of the employee they replace, or 0, whatever version they carry.
+     * Employees without an employeeId are reported by position without stopping the rest.
+     * Records that cannot be parsed end the import, since the input cannot be resynchronized.
+     */
+    @Override
+    public BatchResult importAll(Iterator<Employee> employees) {
+        BatchResult result = new BatchResult();
+        List<Employee> chunk = new ArrayList<Employee>(chunkSize);
+
+        while (true) {
+            Employee employee;
+            try {
+                if (!employees.hasNext()) {
+                    break;
+                }
+                employee = employees.next();
+            } catch (RuntimeException e) {
+                result.addError(result.getReceived(), "Unreadable employee: " + e.getMessage());
+                break;
+            }
+
+            if (employee.getEmployeeId() == null) {
+                result.addError(result.getReceived(), "Missing employeeId");
+            } else {
+                chunk.add(employee);
+            }
+            result.setReceived(result.getReceived() + 1);
+
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+        importChunk(chunk, result);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Imported {} of {} employee(s)", result.getWritten(), result.getReceived());
+        }
+        return result;
+    }
+
+    private void importChunk(List<Employee> chunk, BatchResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        // Locks of every employee in the chunk, taken in ascending order so imports cannot deadlock each other,
+        // while updates only ever hold one
+        BitSet stripes = new BitSet(updateLocks.length);
+        for (Employee employee : chunk) {
+            stripes.set(updateLock(employee.getEmployeeId()));
+        }
+        for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+            updateLocks[i].lock();
+        }
+        try {
+            for (Employee employee : chunk) {
+                employee.setVersion(orgGraph.version(employee.getEmployeeId()) + 1);
+            }
+            if (groupCommitWriter != null) {
+                groupCommitWriter.execute(() -> employeeRepository.upsertAll(chunk));
+            } else {
+                employeeRepository.upsertAll(chunk);
+            }
+            for (Employee employee : chunk) {
+                employeeCache.put(employee);
+                orgGraph.put(employee);
+            }
+        } finally {
+            for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+                updateLocks[i].unlock();
+            }
+        }
+        result.setWritten(result.getWritten() + chunk.size());
+    }
+
+    /**
+     * @return Every employee, read through a database cursor. Must be closed.
+     */
+    @Override
+    public Stream<Employee> exportAll() {
+        LOG.debug("Exporting employees");
+
+        return employeeRepository.streamAllBy();
+    }
 
-        return employeeRepository.save(employee);
+    /**
+     * @return Index of the update lock of an employee
+     */
+    private int updateLock(String id) {
+        return (id.hashCode() & Integer.MAX_VALUE) % updateLocks.length;
     }
 }
@@ -0,0 +1,19 @@
+package com.mindex.challenge.service.impl;
+
+/**
+ * Where {@link ReportingStructureServiceImpl} reads the reporting structure from when counting reports.
+ */
+public enum ReportCountStrategy {
+    /**
+     * In-memory org graph, no repository calls per report.
+     */
+    GRAPH,
+    /**
+     * Repository, one findByEmployeeIdIn query per level of the reporting structure.
+     */
+    BATCHED,
+    /**
+     * Repository, one findByEmployeeId query per report.
+     */
+    PER_NODE
+}
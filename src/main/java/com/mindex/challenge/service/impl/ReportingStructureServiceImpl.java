@@ -2,15 +2,31 @@ package com.mindex.challenge.service.impl;
 
 import com.mindex.challenge.dao.EmployeeRepository;
 import com.mindex.challenge.data.Employee;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.mindex.challenge.cache.EmployeeCache;
 import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.graph.OrgGraph;
+import com.mindex.challenge.metrics.TraversalMetrics;
 import com.mindex.challenge.service.ReportingStructureService;
 
-import java.util.LinkedList;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -21,11 +37,43 @@ public class ReportingStructureServiceImpl implements ReportingStructureService
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private OrgGraph orgGraph;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    @Qualifier("lookupExecutor")
+    private ExecutorService lookupExecutor;
+
+    @Autowired
+    private TraversalMetrics traversalMetrics;
+
+    @Value("${reporting.strategy:GRAPH}")
+    private ReportCountStrategy strategy;
+
+    @Value("${reporting.batch.size:1000}")
+    private int batchSize;
+
+    @Value("${reporting.batch.prefetch:4}")
+    private int prefetch;
+
+    // Maximum number of employee IDs kept in subtree sets per batch request
+    @Value("${reporting.batch.memo-limit:1000000}")
+    private long memoLimit;
+
     @Override
     public ReportingStructure read(String employeeId) {
-        LOG.debug("Creating employee with id [{}]", employeeId);
+        return read(employeeId, false);
+    }
+
+    @Override
+    @Timed(value = "reporting.read", percentiles = {0.5, 0.99, 0.999}, histogram = true)
+    public ReportingStructure read(String employeeId, boolean parallel) {
+        LOG.debug("Reading employee with id [{}]", employeeId);
 
-        Employee employee = employeeRepository.findByEmployeeId(employeeId);
+        Employee employee = employeeCache.get(employeeId, employeeRepository::findByEmployeeId);
 
         if (employee == null) {
             throw new RuntimeException("Invalid employeeId: " + employeeId);
@@ -33,51 +81,189 @@ public class ReportingStructureServiceImpl implements ReportingStructureService
 
         LOG.debug("Creating reporting structure for employee with id [{}]", employeeId);
         ReportingStructure reportingStructure = new ReportingStructure(employee);
-        reportingStructure.setNumberOfReports(countReports(employeeId));
+        reportingStructure.setNumberOfReports(countReports(employeeId, parallel));
 
-        LOG.debug("Reporting structure for employee with id [{}] has {} report(s)", employeeId, reportingStructure.getNumberOfReports());
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Reporting structure for employee with id [{}] has {} report(s)", employeeId, reportingStructure.getNumberOfReports());
+        }
 
         return reportingStructure;
     }
 
     /**
-     * Counts number of reports for a given employee using a breadth-first search and no recursing.
-     * Keeps track of already viewed employees to prevent loops.
-     * @param e Employee
-     * @return Count of reports
+     * Reads the subtree revision of an employee from the org graph, which changes whenever the employee
+     * or anyone under them changes, without reading the employee or counting reports.
+     * @param employeeId
+     * @return Subtree revision, or null if there is no such employee
      */
-    private int countReports(String eId) {
-        LinkedList<String> visited = new LinkedList<String>();
-        LinkedList<String> queue = new LinkedList<String>();
-        List<Employee> directReports;
-        Employee e;
- 
-        visited.add(eId);                 
-        queue.add(eId);
- 
-        while (queue.size() != 0)
-        {
-            eId = queue.poll(); // Pop employee from queue
-            e = employeeRepository.findByEmployeeId(eId); // Find employee by ID to get all info about employee
-            if (e == null) {
-                throw new RuntimeException("Invalid employeeId: " + eId);
-            }
-            directReports = e.getDirectReports();
-            if (directReports == null || directReports.isEmpty())
-                continue;
- 
-            // Iterate through direct reports and into queue if not yet visited
-            for (Employee dReport : directReports)
-            {
-                // Only insert into queue if not yet visited
-                if (!visited.contains(dReport.getEmployeeId()))
-                {
-                    visited.add(dReport.getEmployeeId());
-                    queue.add(dReport.getEmployeeId());
+    @Override
+    public String readRevision(String employeeId) {
+        return orgGraph.revision(employeeId);
+    }
+
+    /**
+     * Writes a JSON array with the reporting structure of every employee ID, in order, flushing after each batch.
+     * Employees are loaded in batches with findByEmployeeIdIn, with up to reporting.batch.prefetch batches
+     * fetched ahead on the lookup executor while earlier ones are written.
+     * Reports are counted with a {@link SubtreeCounter} for the whole request, loading through the configured strategy,
+     * so the direct reports of an employee are loaded once per request and a requested employee that is under
+     * another one is traversed once. With the org graph, counts it already holds are used as they are.
+     * An ID that cannot be read, including every ID of a batch whose lookup failed, is written as an object with
+     * the ID and an error message, without stopping the rest.
+     */
+    @Override
+    public void writeAll(List<String> employeeIds, JsonGenerator generator) throws IOException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Writing reporting structures for {} employee(s)", employeeIds.size());
+        }
+
+        SubtreeCounter counter = new SubtreeCounter(reportLoader(), memoLimit, traversalMetrics::record);
+        ArrayDeque<CompletableFuture<List<Employee>>> lookups = new ArrayDeque<CompletableFuture<List<Employee>>>();
+        int next = 0;
+
+        try {
+            generator.writeStartArray();
+            for (int from = 0; from < employeeIds.size(); from += batchSize) {
+                List<String> batch = employeeIds.subList(from, Math.min(from + batchSize, employeeIds.size()));
+
+                while (next < employeeIds.size() && lookups.size() < Math.max(1, prefetch)) {
+                    List<String> ahead = employeeIds.subList(next, Math.min(next + batchSize, employeeIds.size()));
+                    lookups.add(CompletableFuture.supplyAsync(() -> employeeRepository.findByEmployeeIdIn(ahead), lookupExecutor));
+                    next += batchSize;
+                }
+
+                Map<String, Employee> employees = new HashMap<String, Employee>();
+                try {
+                    for (Employee e : join(lookups.poll())) {
+                        employees.put(e.getEmployeeId(), e);
+                    }
+                } catch (RuntimeException e) {
+                    // Loading the batch failed, so every ID of it fails with it and the next batch is written as usual
+                    for (String employeeId : batch) {
+                        writeError(generator, employeeId, e.getMessage());
+                    }
+                    generator.flush();
+                    continue;
+                }
+
+                // Counts the org graph already holds need no traversal, the rest are counted together
+                Set<String> toCount = new LinkedHashSet<String>();
+                for (String employeeId : batch) {
+                    if (employees.containsKey(employeeId)
+                            && !(strategy == ReportCountStrategy.GRAPH && orgGraph.isCounted(employeeId))) {
+                        toCount.add(employeeId);
+                    }
+                }
+                counter.seed(employees.values());
+                RuntimeException countFailure = null;
+                try {
+                    counter.countAll(new ArrayList<String>(toCount));
+                } catch (RuntimeException e) {
+                    // Loading reports failed, so every count of the batch fails with it
+                    countFailure = e;
+                }
+
+                for (String employeeId : batch) {
+                    Employee employee = employees.get(employeeId);
+                    if (employee == null) {
+                        writeError(generator, employeeId, "Invalid employeeId: " + employeeId);
+                        continue;
+                    }
+
+                    ReportingStructure reportingStructure = new ReportingStructure(employee);
+                    try {
+                        if (toCount.contains(employeeId) && countFailure != null) {
+                            throw countFailure;
+                        }
+                        reportingStructure.setNumberOfReports(toCount.contains(employeeId)
+                            ? counter.count(employeeId)
+                            : orgGraph.countReports(employeeId));
+                    } catch (RuntimeException e) {
+                        writeError(generator, employeeId, e.getMessage());
+                        continue;
+                    }
+                    generator.writeObject(reportingStructure);
                 }
-            }  
+                generator.flush();
+            }
+        } finally {
+            // Lookups still queued when a write fails, e.g. the client went away, are not needed anymore
+            for (CompletableFuture<List<Employee>> lookup : lookups) {
+                lookup.cancel(false);
+            }
+        }
+        generator.writeEndArray();
+        generator.flush();
+    }
+
+    /**
+     * @return Loader of direct reports for the configured strategy
+     */
+    private SubtreeCounter.ReportLoader reportLoader() {
+        switch (strategy) {
+            case BATCHED:
+                return ids -> RepositoryReportCounter.loadBatched(employeeRepository, ids, batchSize, lookupExecutor);
+            case PER_NODE:
+                return ids -> RepositoryReportCounter.loadPerNode(employeeRepository, ids);
+            default:
+                return orgGraph::directReports;
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void writeError(JsonGenerator generator, String employeeId, String message) throws IOException {
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("employee");
+        generator.writeStringField("employeeId", employeeId);
+        generator.writeEndObject();
+        generator.writeStringField("error", message);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the expanded reporting tree under an employee that was already read, so that an invalid ID
+     * is reported before anything is written.
+     */
+    @Override
+    public void writeTree(Employee root, int depth, JsonGenerator generator) throws IOException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Writing reporting tree for employee with id [{}] to depth {}", root.getEmployeeId(), depth);
+        }
+
+        new ReportingTreeWriter(employeeRepository, generator, depth).write(root);
+    }
+
+    /**
+     * Counts number of reports for a given employee using the configured strategy.
+     * By default answered from the in-memory org graph, so no repository calls are made per report.
+     * @param eId Employee ID
+     * @param parallel Whether to split the traversal across a fork/join pool, only applies to the org graph
+     * @return Count of reports
+     */
+    private int countReports(String eId, boolean parallel) {
+        int count;
+        switch (strategy) {
+            case BATCHED:
+                count = RepositoryReportCounter.countBatched(employeeRepository, eId, batchSize, lookupExecutor);
+                break;
+            case PER_NODE:
+                count = RepositoryReportCounter.countPerNode(employeeRepository, eId);
+                break;
+            default:
+                // The org graph records its own traversals, since counts it already holds need none
+                return orgGraph.countReports(eId, parallel);
         }
-        // First employee is in visited, so reduce size by 1
-        return visited.size() - 1;
+        traversalMetrics.record(count + 1);
+        return count;
     }
 }
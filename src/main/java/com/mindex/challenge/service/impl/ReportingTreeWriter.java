@@ -0,0 +1,145 @@
+package com.mindex.challenge.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes the expanded reporting structure under an employee straight to a {@link JsonGenerator}.
+ * Employees are written in the same shape as {@link Employee}, with directReports expanded into full employees.
+ * The walk is depth-first with an explicit stack, so only the managers on the current path and their
+ * direct reports are held in memory besides the IDs already written, and the direct reports of each manager
+ * are fetched in one query.
+ * Each employee is expanded once: one that was already written, whether above on the current path or under
+ * another manager sharing the report, is written again as an ID stub, as are a report that has no employee record
+ * and reports below the depth limit, the same way directReports are stored.
+ */
+class ReportingTreeWriter {
+
+    private final EmployeeRepository employeeRepository;
+    private final JsonGenerator generator;
+    private final int maxDepth;
+
+    private final ArrayDeque<Level> stack = new ArrayDeque<Level>();
+    // Employees already expanded, including the ones on the current path
+    private final Set<String> written = new HashSet<String>();
+
+    /**
+     * @param employeeRepository
+     * @param generator
+     * @param maxDepth Number of levels of reports to expand, or a negative number for no limit
+     */
+    ReportingTreeWriter(EmployeeRepository employeeRepository, JsonGenerator generator, int maxDepth) {
+        this.employeeRepository = employeeRepository;
+        this.generator = generator;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * @param root Employee at the top of the tree
+     */
+    void write(Employee root) throws IOException {
+        open(root, 0);
+
+        while (!stack.isEmpty()) {
+            Level level = stack.peek();
+            if (level.next < level.reports.size()) {
+                Employee dReport = level.reports.get(level.next++);
+                Employee fetched = level.fetched.get(dReport.getEmployeeId());
+                if (fetched == null || written.contains(dReport.getEmployeeId())) {
+                    writeStub(dReport);
+                } else {
+                    open(fetched, level.depth + 1);
+                }
+            } else {
+                stack.pop();
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        }
+        generator.flush();
+    }
+
+    /**
+     * Writes the fields of an employee and either starts expanding its direct reports,
+     * or closes it when there is nothing to expand.
+     */
+    private void open(Employee employee, int depth) throws IOException {
+        written.add(employee.getEmployeeId());
+        generator.writeStartObject();
+        generator.writeStringField("employeeId", employee.getEmployeeId());
+        generator.writeStringField("firstName", employee.getFirstName());
+        generator.writeStringField("lastName", employee.getLastName());
+        generator.writeStringField("position", employee.getPosition());
+        generator.writeStringField("department", employee.getDepartment());
+        if (employee.getVersion() != null) {
+            generator.writeNumberField("version", employee.getVersion());
+        }
+
+        List<Employee> directReports = employee.getDirectReports();
+        if (directReports == null) {
+            generator.writeNullField("directReports");
+            generator.writeEndObject();
+            return;
+        }
+
+        generator.writeArrayFieldStart("directReports");
+        if (directReports.isEmpty() || (maxDepth >= 0 && depth >= maxDepth)) {
+            for (Employee dReport : directReports) {
+                writeStub(dReport);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            return;
+        }
+
+        stack.push(new Level(directReports, fetch(directReports), depth));
+    }
+
+    private void writeStub(Employee dReport) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("employeeId", dReport.getEmployeeId());
+        generator.writeEndObject();
+    }
+
+    /**
+     * @return Employee records of the direct reports, keyed by ID
+     */
+    private Map<String, Employee> fetch(List<Employee> directReports) {
+        List<String> ids = new ArrayList<String>(directReports.size());
+        for (Employee dReport : directReports) {
+            ids.add(dReport.getEmployeeId());
+        }
+
+        Map<String, Employee> fetched = new HashMap<String, Employee>();
+        for (Employee e : employeeRepository.findByEmployeeIdIn(ids)) {
+            fetched.put(e.getEmployeeId(), e);
+        }
+        return fetched;
+    }
+
+    /**
+     * A manager whose direct reports are being written.
+     */
+    private static final class Level {
+        private final List<Employee> reports;
+        private final Map<String, Employee> fetched;
+        private final int depth;
+        private int next;
+
+        Level(List<Employee> reports, Map<String, Employee> fetched, int depth) {
+            this.reports = reports;
+            this.fetched = fetched;
+            this.depth = depth;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Counts reports by reading the reporting structure straight from the {@link EmployeeRepository}.
+ * Both searches are breadth-first and keep track of already viewed employees to prevent loops.
+ */
+final class RepositoryReportCounter {
+
+    private RepositoryReportCounter() {
+    }
+
+    /**
+     * Counts reports with one findByEmployeeId query per report.
+     * @param employeeRepository
+     * @param eId Employee ID
+     * @return Count of reports
+     */
+    static int countPerNode(EmployeeRepository employeeRepository, String eId) {
+        Set<String> visited = new HashSet<String>();
+        ArrayDeque<String> queue = new ArrayDeque<String>();
+
+        visited.add(eId);
+        queue.add(eId);
+
+        while (!queue.isEmpty()) {
+            String id = queue.poll();
+            Employee e = employeeRepository.findByEmployeeId(id);
+            if (e == null) {
+                throw new RuntimeException("Invalid employeeId: " + id);
+            }
+            if (e.getDirectReports() == null) {
+                continue;
+            }
+            for (Employee dReport : e.getDirectReports()) {
+                if (visited.add(dReport.getEmployeeId())) {
+                    queue.add(dReport.getEmployeeId());
+                }
+            }
+        }
+        // First employee is in visited, so reduce size by 1
+        return visited.size() - 1;
+    }
+
+    /**
+     * Counts reports with one findByEmployeeIdIn query per level of the reporting structure,
+     * split into chunks of at most batchSize IDs.
+     * @param employeeRepository
+     * @param eId Employee ID
+     * @param batchSize Maximum number of IDs per query
+     * @return Count of reports
+     */
+    static int countBatched(EmployeeRepository employeeRepository, String eId, int batchSize) {
+        return countBatched(employeeRepository, eId, batchSize, Runnable::run);
+    }
+
+    /**
+     * Counts reports with one findByEmployeeIdIn query per level of the reporting structure,
+     * split into chunks of at most batchSize IDs. The chunks of a level are queried concurrently on the executor.
+     * @param employeeRepository
+     * @param eId Employee ID
+     * @param batchSize Maximum number of IDs per query
+     * @param executor Executor to run the queries of a level on
+     * @return Count of reports
+     */
+    static int countBatched(EmployeeRepository employeeRepository, String eId, int batchSize, Executor executor) {
+        Set<String> visited = new HashSet<String>();
+        List<String> level = new ArrayList<String>();
+
+        visited.add(eId);
+        level.add(eId);
+
+        while (!level.isEmpty()) {
+            List<List<String>> batches = new ArrayList<List<String>>();
+            List<CompletableFuture<List<Employee>>> lookups = new ArrayList<CompletableFuture<List<Employee>>>();
+            for (int from = 0; from < level.size(); from += batchSize) {
+                List<String> batch = level.subList(from, Math.min(from + batchSize, level.size()));
+                batches.add(batch);
+                lookups.add(CompletableFuture.supplyAsync(() -> employeeRepository.findByEmployeeIdIn(batch), executor));
+            }
+
+            List<String> nextLevel = new ArrayList<String>();
+            for (int i = 0; i < batches.size(); i++) {
+                List<Employee> employees = join(lookups.get(i));
+                if (employees.size() < batches.get(i).size()) {
+                    throw new RuntimeException("Invalid employeeId: " + findMissing(batches.get(i), employees));
+                }
+
+                for (Employee e : employees) {
+                    if (e.getDirectReports() == null) {
+                        continue;
+                    }
+                    for (Employee dReport : e.getDirectReports()) {
+                        if (visited.add(dReport.getEmployeeId())) {
+                            nextLevel.add(dReport.getEmployeeId());
+                        }
+                    }
+                }
+            }
+            level = nextLevel;
+        }
+        // First employee is in visited, so reduce size by 1
+        return visited.size() - 1;
+    }
+
+    /**
+     * Loads direct reports with one findByEmployeeId query per employee, for a {@link SubtreeCounter}.
+     * @param employeeRepository
+     * @param eIds Employee IDs
+     * @return Direct report IDs of every employee found, keyed by ID
+     */
+    static Map<String, List<String>> loadPerNode(EmployeeRepository employeeRepository, List<String> eIds) {
+        Map<String, List<String>> loaded = new HashMap<String, List<String>>();
+        for (String id : eIds) {
+            Employee e = employeeRepository.findByEmployeeId(id);
+            if (e != null) {
+                loaded.put(id, directReportIds(e));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Loads direct reports with findByEmployeeIdIn queries of at most batchSize IDs, run concurrently on the executor,
+     * for a {@link SubtreeCounter}.
+     * @param employeeRepository
+     * @param eIds Employee IDs
+     * @param batchSize Maximum number of IDs per query
+     * @param executor Executor to run the queries on
+     * @return Direct report IDs of every employee found, keyed by ID
+     */
+    static Map<String, List<String>> loadBatched(EmployeeRepository employeeRepository, List<String> eIds,
+                                                 int batchSize, Executor executor) {
+        List<CompletableFuture<List<Employee>>> lookups = new ArrayList<CompletableFuture<List<Employee>>>();
+        for (int from = 0; from < eIds.size(); from += batchSize) {
+            List<String> batch = eIds.subList(from, Math.min(from + batchSize, eIds.size()));
+            lookups.add(CompletableFuture.supplyAsync(() -> employeeRepository.findByEmployeeIdIn(batch), executor));
+        }
+
+        Map<String, List<String>> loaded = new HashMap<String, List<String>>();
+        for (CompletableFuture<List<Employee>> lookup : lookups) {
+            for (Employee e : join(lookup)) {
+                loaded.put(e.getEmployeeId(), directReportIds(e));
+            }
+        }
+        return loaded;
+    }
+
+    static List<String> directReportIds(Employee e) {
+        if (e.getDirectReports() == null) {
+            return new ArrayList<String>(0);
+        }
+        List<String> ids = new ArrayList<String>(e.getDirectReports().size());
+        for (Employee dReport : e.getDirectReports()) {
+            ids.add(dReport.getEmployeeId());
+        }
+        return ids;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static String findMissing(List<String> ids, List<Employee> employees) {
+        Set<String> found = new HashSet<String>();
+        for (Employee e : employees) {
+            found.add(e.getEmployeeId());
+        }
+        for (String id : ids) {
+            if (!found.contains(id)) {
+                return id;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,239 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Employee;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * Counts reports for the employees of one batch request, sharing work between them.
+ * The direct reports of every employee are loaded once per request, for the union of the requested subtrees
+ * one level at a time. Requested employees are then counted descendants first, and the set of IDs under each one
+ * is kept, so a requested employee that is also under another one is traversed once and its set merged
+ * into the other's. Counts and errors are kept as well, so repeated IDs cost nothing.
+ * <p>
+ * Kept sets are bounded by memoLimit IDs in total; past it, counts are still shared through the loaded
+ * direct reports but later subtrees are traversed in full. Instances are not thread safe, use one per request.
+ */
+final class SubtreeCounter {
+
+    /**
+     * Loads the direct reports of employees.
+     */
+    interface ReportLoader {
+        /**
+         * @param employeeIds
+         * @return Direct report IDs of every employee that has a record, keyed by ID. IDs without one are left out.
+         */
+        Map<String, List<String>> load(List<String> employeeIds);
+    }
+
+    private final ReportLoader loader;
+    private final long memoLimit;
+    private final IntConsumer recorder;
+
+    // Direct report IDs of every employee loaded so far, null for IDs without an employee record
+    private final Map<String, List<String>> reports = new HashMap<String, List<String>>();
+    // Every ID under a counted employee, itself included
+    private final Map<String, Set<String>> subtrees = new HashMap<String, Set<String>>();
+    private final Map<String, Integer> counts = new HashMap<String, Integer>();
+    // Counted employees with a missing record under them, mapped to the first one found
+    private final Map<String, String> missing = new HashMap<String, String>();
+    private long memoized;
+
+    /**
+     * @param loader
+     * @param memoLimit Maximum number of IDs kept across subtree sets
+     * @param recorder Receives the number of nodes each traversal expanded, including its root
+     */
+    SubtreeCounter(ReportLoader loader, long memoLimit, IntConsumer recorder) {
+        this.loader = loader;
+        this.memoLimit = memoLimit;
+        this.recorder = recorder;
+    }
+
+    /**
+     * Adds employees that were already read, such as the requested ones, so they are not loaded again.
+     */
+    void seed(Collection<Employee> employees) {
+        for (Employee employee : employees) {
+            reports.putIfAbsent(employee.getEmployeeId(), RepositoryReportCounter.directReportIds(employee));
+        }
+    }
+
+    /**
+     * Loads every subtree under the given employees and counts them, descendants first.
+     * @param employeeIds Requested employees, which must have been seeded
+     */
+    void countAll(List<String> employeeIds) {
+        load(employeeIds);
+
+        for (String employeeId : postOrder(employeeIds)) {
+            if (!counts.containsKey(employeeId) && !missing.containsKey(employeeId)) {
+                traverse(employeeId);
+            }
+        }
+    }
+
+    /**
+     * @param employeeId Employee passed to countAll
+     * @return Count of distinct reports under the employee
+     * @throws RuntimeException if an employee record is missing under the employee
+     */
+    int count(String employeeId) {
+        Integer count = counts.get(employeeId);
+        if (count != null) {
+            return count;
+        }
+        String missingId = missing.get(employeeId);
+        if (missingId != null) {
+            throw new RuntimeException("Invalid employeeId: " + missingId);
+        }
+        throw new IllegalStateException("Reports of " + employeeId + " were not counted");
+    }
+
+    /**
+     * Counts the reports of an employee whose subtree is loaded, from the subtrees already counted under it.
+     * The count, or the missing record found, is kept.
+     */
+    private void traverse(String employeeId) {
+        Set<String> subtree = new HashSet<String>();
+        ArrayDeque<String> queue = new ArrayDeque<String>();
+        int expanded = 0;
+
+        subtree.add(employeeId);
+        queue.add(employeeId);
+        while (!queue.isEmpty()) {
+            String id = queue.poll();
+            expanded++;
+            List<String> dReports = reports.get(id);
+            if (dReports == null) {
+                missing.put(employeeId, id);
+                recorder.accept(expanded);
+                return;
+            }
+
+            for (String dReport : dReports) {
+                if (subtree.contains(dReport)) {
+                    continue;
+                }
+                String missingBelow = missing.get(dReport);
+                if (missingBelow != null) {
+                    missing.put(employeeId, missingBelow);
+                    recorder.accept(expanded);
+                    return;
+                }
+
+                Set<String> counted = subtrees.get(dReport);
+                if (counted != null) {
+                    // Already counted, so everything under it is known without expanding it
+                    subtree.addAll(counted);
+                } else {
+                    subtree.add(dReport);
+                    queue.add(dReport);
+                }
+            }
+        }
+        recorder.accept(expanded);
+
+        if (memoized + subtree.size() <= memoLimit) {
+            subtrees.put(employeeId, subtree);
+            memoized += subtree.size();
+        }
+        // Employee is in its own subtree, so reduce size by 1
+        counts.put(employeeId, subtree.size() - 1);
+    }
+
+    /**
+     * Loads the direct reports of every employee under the given ones that is not loaded yet,
+     * with one load per level of the union of their subtrees.
+     */
+    private void load(List<String> employeeIds) {
+        Set<String> seen = new HashSet<String>(employeeIds);
+        List<String> level = new ArrayList<String>(employeeIds);
+
+        while (!level.isEmpty()) {
+            List<String> toLoad = new ArrayList<String>();
+            for (String id : level) {
+                if (!reports.containsKey(id)) {
+                    toLoad.add(id);
+                }
+            }
+            if (!toLoad.isEmpty()) {
+                Map<String, List<String>> loaded = loader.load(toLoad);
+                for (String id : toLoad) {
+                    reports.put(id, loaded.get(id));
+                }
+            }
+
+            List<String> nextLevel = new ArrayList<String>();
+            for (String id : level) {
+                List<String> dReports = reports.get(id);
+                // Subtrees already counted were loaded in full before
+                if (dReports == null || subtrees.containsKey(id)) {
+                    continue;
+                }
+                for (String dReport : dReports) {
+                    if (seen.add(dReport)) {
+                        nextLevel.add(dReport);
+                    }
+                }
+            }
+            level = nextLevel;
+        }
+    }
+
+    /**
+     * Orders the given employees so that each comes after every other one of them in its subtree,
+     * unless they are in a loop together. Must be called after loading their subtrees.
+     */
+    private List<String> postOrder(List<String> employeeIds) {
+        Set<String> requested = new HashSet<String>(employeeIds);
+        Set<String> visited = new HashSet<String>();
+        List<String> order = new ArrayList<String>(requested.size());
+        ArrayDeque<Frame> stack = new ArrayDeque<Frame>();
+
+        for (String employeeId : employeeIds) {
+            if (!visited.add(employeeId)) {
+                continue;
+            }
+            stack.push(new Frame(employeeId, reports.get(employeeId)));
+            while (!stack.isEmpty()) {
+                Frame frame = stack.peek();
+                if (frame.reports != null && frame.next < frame.reports.size()) {
+                    String dReport = frame.reports.get(frame.next++);
+                    if (visited.add(dReport) && !subtrees.containsKey(dReport)) {
+                        stack.push(new Frame(dReport, reports.get(dReport)));
+                    }
+                } else {
+                    stack.pop();
+                    if (requested.contains(frame.id)) {
+                        order.add(frame.id);
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * An employee whose direct reports are being ordered.
+     */
+    private static final class Frame {
+        private final String id;
+        private final List<String> reports;
+        private int next;
+
+        Frame(String id, List<String> reports) {
+            this.id = id;
+            this.reports = reports;
+        }
+    }
+}
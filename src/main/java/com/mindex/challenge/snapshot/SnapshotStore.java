@@ -0,0 +1,248 @@
+package com.mindex.challenge.snapshot;
+
+import com.mindex.challenge.data.CompensationRecord;
+import com.mindex.challenge.data.Employee;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import de.bwaldvogel.mongo.MongoBackend;
+import de.bwaldvogel.mongo.bson.Document;
+import de.bwaldvogel.mongo.wire.bson.BsonDecoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.bson.RawBsonDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary snapshots of the employee and compensation collections, so a restart does not have to reload them from JSON.
+ * <p>
+ * A snapshot is a header followed by one section per collection. All ints are little endian, as in BSON.
+ * <pre>
+ * header:  int magic, int version
+ * section: int nameLength, byte[] name (UTF-8), document*, int 0
+ * </pre>
+ * Each document is the raw BSON of the stored document, which starts with its own length, so documents are
+ * written to the file without being decoded. On startup an existing snapshot is memory-mapped, which limits a snapshot
+ * to 2 GB, and its documents are decoded from the mapping and inserted into the embedded server's backend directly
+ * rather than sent back through the client.
+ * <p>
+ * Snapshots are written to a temporary file and then moved over the previous one, so a crash never leaves a
+ * partial snapshot behind. Collections are read while writes continue, so a snapshot taken under load is not
+ * a single point in time. A snapshot is taken on shutdown unless snapshot.on-shutdown is false and, when an interval
+ * is set, periodically in the background.
+ * <p>
+ * A snapshot is only restored into empty collections. A database that already holds documents, such as a file-backed
+ * H2 backend, may be newer than the snapshot, so it is left as it is.
+ * Registered by MongoConfig when snapshot.location is set.
+ */
+public class SnapshotStore {
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotStore.class);
+
+    private static final int MAGIC = 0x504E534D; // "MSNP" when read little endian
+    private static final int VERSION = 1;
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoBackend mongoBackend;
+
+    @Value("${snapshot.location}")
+    private String location;
+
+    @Value("${snapshot.interval-seconds:0}")
+    private long intervalSeconds;
+
+    @Value("${snapshot.on-shutdown:true}")
+    private boolean onShutdown;
+
+    private ScheduledExecutorService scheduler;
+    private boolean restored;
+
+    @PostConstruct
+    public void init() throws IOException {
+        restored = restore();
+
+        if (intervalSeconds > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::snapshotQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (onShutdown) {
+            snapshotQuietly();
+        }
+    }
+
+    /**
+     * @return Whether the collections were restored from a snapshot at startup
+     */
+    public boolean isRestored() {
+        return restored;
+    }
+
+    /**
+     * Writes every document of the snapshotted collections to the snapshot file, replacing the previous snapshot.
+     */
+    public synchronized void snapshot() throws IOException {
+        long start = System.currentTimeMillis();
+        Path path = Paths.get(location);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        long documents = 0;
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+            writeInt(out, MAGIC);
+            writeInt(out, VERSION);
+
+            for (String name : collectionNames()) {
+                byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+                writeInt(out, nameBytes.length);
+                out.write(nameBytes);
+
+                MongoCollection<RawBsonDocument> collection = mongoTemplate.getDb().getCollection(name, RawBsonDocument.class);
+                try (MongoCursor<RawBsonDocument> cursor = collection.find().batchSize(BATCH_SIZE).iterator()) {
+                    while (cursor.hasNext()) {
+                        ByteBuffer document = cursor.next().getByteBuffer().asNIO();
+                        out.write(document.array(), document.arrayOffset() + document.position(), document.remaining());
+                        documents++;
+                    }
+                }
+                writeInt(out, 0);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        LOG.debug("Wrote snapshot of {} document(s) to {} in {} ms", documents, path, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Inserts every document of the snapshot file into its collection.
+     * Nothing is restored if any of the snapshotted collections already holds documents.
+     * @return Whether a snapshot file existed and was restored
+     */
+    public synchronized boolean restore() throws IOException {
+        long start = System.currentTimeMillis();
+        Path path = Paths.get(location);
+        if (!Files.exists(path)) {
+            LOG.debug("No snapshot to restore at {}", path);
+            return false;
+        }
+        for (String name : collectionNames()) {
+            if (mongoTemplate.getDb().getCollection(name).countDocuments() > 0) {
+                LOG.info("Not restoring snapshot {}, collection {} already holds documents", path, name);
+                return false;
+            }
+        }
+
+        String database = mongoTemplate.getDb().getName();
+        // The backend keeps per-connection state, such as the last error, so inserts need a channel of their own
+        EmbeddedChannel channel = new EmbeddedChannel();
+        long documents = 0;
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (file.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + path);
+            }
+            // Documents are decoded straight from the mapping, nothing is copied out of it first
+            ByteBuf buffer = Unpooled.wrappedBuffer(file.map(FileChannel.MapMode.READ_ONLY, 0, file.size()));
+
+            if (buffer.readIntLE() != MAGIC || buffer.readIntLE() != VERSION) {
+                throw new IOException("Not a snapshot, or written by an unsupported version: " + path);
+            }
+
+            while (buffer.isReadable()) {
+                String name = buffer.readCharSequence(buffer.readIntLE(), StandardCharsets.UTF_8).toString();
+
+                List<Document> batch = new ArrayList<Document>(BATCH_SIZE);
+                while (buffer.getIntLE(buffer.readerIndex()) != 0) {
+                    batch.add(BsonDecoder.decodeBson(buffer));
+                    documents++;
+
+                    if (batch.size() == BATCH_SIZE) {
+                        insert(channel, database, name, batch);
+                    }
+                }
+                insert(channel, database, name, batch);
+                // Skip the section terminator
+                buffer.skipBytes(4);
+            }
+        } finally {
+            mongoBackend.handleClose(channel);
+            channel.close();
+        }
+
+        LOG.debug("Restored {} document(s) from {} in {} ms", documents, path, System.currentTimeMillis() - start);
+        return true;
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Failed to write snapshot to " + location, e);
+        }
+    }
+
+    private List<String> collectionNames() {
+        return Arrays.asList(
+            mongoTemplate.getCollectionName(Employee.class),
+            mongoTemplate.getCollectionName(CompensationRecord.class)
+        );
+    }
+
+    /**
+     * Inserts a batch with the backend's insert command, as the server would for a client, but without
+     * encoding the documents for the client and decoding them again on the server.
+     */
+    private void insert(EmbeddedChannel channel, String database, String collection, List<Document> batch) throws IOException {
+        if (!batch.isEmpty()) {
+            Document result = mongoBackend.handleCommand(channel, database, "insert", new Document("insert", collection)
+                .append("documents", batch)
+                .append("ordered", false));
+            if (result.containsKey("writeErrors")) {
+                throw new IOException("Failed to restore documents into " + collection + ": " + result.get("writeErrors"));
+            }
+            batch.clear();
+        }
+    }
+
+    private static void writeInt(OutputStream out, int value) throws IOException {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+}
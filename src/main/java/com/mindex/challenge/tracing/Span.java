@@ -0,0 +1,84 @@
+package com.mindex.challenge.tracing;
+
+/**
+ * A timed call within a sampled request. Spans of a request share a trace ID, and each span points to the span
+ * of its caller, with 0 for the controller span that started the trace.
+ */
+public final class Span {
+
+    public enum Layer {
+        CONTROLLER, SERVICE, REPOSITORY
+    }
+
+    private final long traceId;
+    private final int spanId;
+    private final int parentId;
+    private final Layer layer;
+    private final String name;
+    private final long offsetNanos;
+    private final long durationNanos;
+    private final boolean failed;
+
+    /**
+     * @param traceId
+     * @param spanId Number of the span within its trace, starting from 1
+     * @param parentId Span ID of the caller, or 0 for the root span
+     * @param layer
+     * @param name Class and method, e.g. EmployeeServiceImpl.read
+     * @param offsetNanos Start of the span relative to the start of the trace
+     * @param durationNanos
+     * @param failed Whether the call threw
+     */
+    public Span(long traceId, int spanId, int parentId, Layer layer, String name, long offsetNanos,
+                long durationNanos, boolean failed) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentId = parentId;
+        this.layer = layer;
+        this.name = name;
+        this.offsetNanos = offsetNanos;
+        this.durationNanos = durationNanos;
+        this.failed = failed;
+    }
+
+    public long getTraceId() {
+        return traceId;
+    }
+
+    public int getSpanId() {
+        return spanId;
+    }
+
+    public int getParentId() {
+        return parentId;
+    }
+
+    public Layer getLayer() {
+        return layer;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getOffsetNanos() {
+        return offsetNanos;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * @return The span as space-separated key=value pairs, for log aggregation
+     */
+    @Override
+    public String toString() {
+        return String.format("trace=%016x span=%d parent=%d layer=%s name=%s offset_us=%d duration_us=%d failed=%b",
+            traceId, spanId, parentId, layer, name, offsetNanos / 1000, durationNanos / 1000, failed);
+    }
+}
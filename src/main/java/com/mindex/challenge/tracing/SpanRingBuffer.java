@@ -0,0 +1,82 @@
+package com.mindex.challenge.tracing;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded lock-free queue of spans, for many recording threads and a single flushing thread.
+ * Each slot carries a sequence number that tells whether it is free to write or ready to read for the current lap,
+ * so producers only contend on one CAS to claim a position and never wait for each other or for the consumer.
+ * When the buffer is full, new spans are dropped and counted rather than blocking the request.
+ */
+class SpanRingBuffer {
+
+    private final int mask;
+    private final AtomicReferenceArray<Span> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    // Only read and written by the consumer
+    private long tail;
+
+    /**
+     * @param capacity Number of spans held, rounded up to a power of two
+     */
+    SpanRingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<Span>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return Whether the span was added, or dropped because the buffer is full
+     */
+    boolean offer(Span span) {
+        while (true) {
+            long position = head.get();
+            int index = (int) position & mask;
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, span);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (available < 0) {
+                dropped.increment();
+                return false;
+            }
+            // Another producer claimed the position first, retry with the next one
+        }
+    }
+
+    /**
+     * Must only be called from one thread at a time.
+     * @return Oldest span, or null when the buffer is empty
+     */
+    Span poll() {
+        int index = (int) tail & mask;
+        if (sequences.get(index) != tail + 1) {
+            return null;
+        }
+        Span span = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.set(index, tail + mask + 1);
+        tail++;
+        return span;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,177 @@
+package com.mindex.challenge.tracing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Records spans of sampled requests into a {@link SpanRingBuffer}, which a background thread flushes every
+ * tracing.flush-interval-ms as one structured INFO line per span on the com.mindex.challenge.tracing.spans logger.
+ * <p>
+ * Whether a request is sampled is decided once, when its trace begins, with probability tracing.sample-rate.
+ * Unsampled requests and calls outside any request only cost a thread local read. Spans are tracked per thread,
+ * so work handed to another thread, such as group commits and fanned out lookups, is not part of the trace.
+ */
+@Component
+public class Tracer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Tracer.class);
+    private static final Logger SPANS = LoggerFactory.getLogger("com.mindex.challenge.tracing.spans");
+
+    private final double sampleRate;
+    private final long flushIntervalMillis;
+    private final SpanRingBuffer buffer;
+    private final ThreadLocal<Trace> traces = new ThreadLocal<Trace>();
+    private ScheduledExecutorService flusher;
+
+    public Tracer(
+        @Value("${tracing.sample-rate:0}") double sampleRate,
+        @Value("${tracing.buffer-size:8192}") int bufferSize,
+        @Value("${tracing.flush-interval-ms:1000}") long flushIntervalMillis,
+        MeterRegistry meterRegistry
+    ) {
+        this.sampleRate = sampleRate;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.buffer = new SpanRingBuffer(bufferSize);
+
+        FunctionCounter.builder("tracing.spans.dropped", buffer, SpanRingBuffer::dropped)
+            .description("Spans dropped because the trace buffer was full")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (sampleRate <= 0) {
+            return;
+        }
+        LOG.info("Tracing {}% of requests into a buffer of {} span(s)", sampleRate * 100, buffer.capacity());
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trace-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher.awaitTermination(flushIntervalMillis, TimeUnit.MILLISECONDS);
+            flush();
+        }
+    }
+
+    /**
+     * Starts a trace on the current thread if the request is sampled.
+     * @return Whether a trace was started, in which case {@link #end()} must be called once the request is done
+     */
+    public boolean begin() {
+        if (sampleRate <= 0 || traces.get() != null || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return false;
+        }
+        traces.set(new Trace(ThreadLocalRandom.current().nextLong(), System.nanoTime()));
+        return true;
+    }
+
+    /**
+     * Ends the trace on the current thread.
+     */
+    public void end() {
+        traces.remove();
+    }
+
+    /**
+     * @return Trace of the current thread, or null when the current request is not sampled
+     */
+    public Trace current() {
+        return traces.get();
+    }
+
+    /**
+     * Queues a finished span for flushing, or drops it if the buffer is full.
+     */
+    public void record(Span span) {
+        buffer.offer(span);
+    }
+
+    /**
+     * Hands every buffered span to a consumer, oldest first. Drains are serialized, as the buffer has a single consumer.
+     */
+    public synchronized void drain(Consumer<Span> consumer) {
+        Span span;
+        while ((span = buffer.poll()) != null) {
+            consumer.accept(span);
+        }
+    }
+
+    /**
+     * Writes every buffered span to the spans logger.
+     */
+    public void flush() {
+        drain(span -> SPANS.info("{}", span));
+    }
+
+    /**
+     * Open spans of a sampled request on one thread. Not thread safe.
+     */
+    public static final class Trace {
+        private final long traceId;
+        private final long startNanos;
+        private int[] open = new int[8];
+        private int depth;
+        private int lastSpanId;
+
+        Trace(long traceId, long startNanos) {
+            this.traceId = traceId;
+            this.startNanos = startNanos;
+        }
+
+        public long getTraceId() {
+            return traceId;
+        }
+
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        /**
+         * @return Span ID of the innermost open span, or 0 if there is none
+         */
+        public int currentSpanId() {
+            return depth == 0 ? 0 : open[depth - 1];
+        }
+
+        /**
+         * Opens a span nested in the current one.
+         * @return Span ID of the new span
+         */
+        public int push() {
+            if (depth == open.length) {
+                open = Arrays.copyOf(open, depth * 2);
+            }
+            open[depth++] = ++lastSpanId;
+            return lastSpanId;
+        }
+
+        /**
+         * Closes the innermost open span.
+         */
+        public void pop() {
+            depth--;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.mindex.challenge.tracing;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records controller, service and repository calls as spans through {@link Tracer}.
+ * A trace begins at the first controller call of a request, so services and repositories called outside
+ * of a request are never traced. Only registered when tracing.sample-rate is above 0, so there is no proxy
+ * overhead at all when tracing is off. Reactive controllers do not run on a single thread and are not traced.
+ */
+@Aspect
+@Component
+@ConditionalOnExpression("${tracing.sample-rate:0} > 0")
+public class TracingAspect {
+
+    private final Tracer tracer;
+
+    public TracingAspect(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Around("within(com.mindex.challenge.controller..*) && @within(org.springframework.web.bind.annotation.RestController)")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean began = tracer.begin();
+        try {
+            return trace(joinPoint, Span.Layer.CONTROLLER);
+        } finally {
+            if (began) {
+                tracer.end();
+            }
+        }
+    }
+
+    @Around("within(com.mindex.challenge.service.impl..*)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, Span.Layer.SERVICE);
+    }
+
+    @Around("target(com.mindex.challenge.dao.EmployeeRepository) || target(com.mindex.challenge.dao.CompensationRepository)")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, Span.Layer.REPOSITORY);
+    }
+
+    private Object trace(ProceedingJoinPoint joinPoint, Span.Layer layer) throws Throwable {
+        Tracer.Trace trace = tracer.current();
+        if (trace == null) {
+            return joinPoint.proceed();
+        }
+
+        int parentId = trace.currentSpanId();
+        int spanId = trace.push();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long end = System.nanoTime();
+            trace.pop();
+            tracer.record(new Span(trace.getTraceId(), spanId, parentId, layer, name(joinPoint, layer),
+                start - trace.getStartNanos(), end - start, failed));
+        }
+    }
+
+    /**
+     * Repository methods are mostly declared on the Spring Data interfaces, so repositories are named after
+     * the repository rather than the declaring type.
+     */
+    private static String name(ProceedingJoinPoint joinPoint, Span.Layer layer) {
+        String type;
+        if (layer == Span.Layer.REPOSITORY) {
+            type = joinPoint.getTarget() instanceof EmployeeRepository ? "EmployeeRepository" : "CompensationRepository";
+        } else {
+            type = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        }
+        return type + "." + joinPoint.getSignature().getName();
+    }
+}
@@ -0,0 +1,34 @@
+package com.mindex.challenge;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import static org.junit.Assert.assertEquals;
+
+import static org.junit.Assert.assertNotNull;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+    "bootstrap.location=classpath:/employee_database.json.gz",
+    "bootstrap.batch-size=2",
+    "bootstrap.parallelism=2"
+})
+public class DataBootstrapGzipTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    public void test() {
+        assertEquals(5, employeeRepository.count());
+
+        Employee employee = employeeRepository.findByEmployeeId("c0c2293d-16bd-4603-8e08-638a9d18b22c");
+        assertNotNull(employee);
+        assertEquals("George", employee.getFirstName());
+        assertEquals("Harrison", employee.getLastName());
+    }
+}
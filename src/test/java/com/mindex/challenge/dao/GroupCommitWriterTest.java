@@ -0,0 +1,73 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class GroupCommitWriterTest {
+
+    private InMemoryEmployeeRepository employeeRepository;
+    private AtomicInteger commits;
+    private GroupCommitWriter groupCommitWriter;
+
+    @Before
+    public void setup() {
+        employeeRepository = new InMemoryEmployeeRepository();
+        commits = new AtomicInteger();
+        groupCommitWriter = new GroupCommitWriter(employeeRepository, new InMemoryCompensationRepository(),
+            commits::incrementAndGet, 100);
+        groupCommitWriter.start();
+    }
+
+    @After
+    public void teardown() throws Exception {
+        groupCommitWriter.stop();
+    }
+
+    @Test
+    public void testWriteIsCommittedBeforeReturning() {
+        Employee employee = employee("1");
+
+        assertSame(employee, groupCommitWriter.insert(employee));
+        assertNotNull(employeeRepository.findByEmployeeId("1"));
+        assertEquals(1, commits.get());
+    }
+
+    @Test
+    public void testFailedWriteOnlyFailsItsCaller() {
+        groupCommitWriter.insert(employee("1"));
+        try {
+            groupCommitWriter.insert(employee("1"));
+            fail("Expected duplicate key");
+        } catch (RuntimeException e) {
+            // Expected
+        }
+
+        groupCommitWriter.save(employee("2"));
+        assertEquals(2, employeeRepository.count());
+    }
+
+    @Test
+    public void testCommitAsyncCompletesAfterCommit() throws Exception {
+        // Written outside the writer, as the reactive repositories do
+        employeeRepository.insert(employee("1"));
+
+        groupCommitWriter.commitAsync().get(10, TimeUnit.SECONDS);
+        assertEquals(1, commits.get());
+    }
+
+    private static Employee employee(String employeeId) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        return employee;
+    }
+}
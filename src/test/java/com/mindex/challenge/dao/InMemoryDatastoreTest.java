@@ -0,0 +1,126 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.CompensationService;
+import com.mindex.challenge.service.ReportingStructureService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "datastore.mode=in-memory")
+public class InMemoryDatastoreTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ReportingStructureService reportingStructureService;
+
+    @Autowired
+    private CompensationService compensationService;
+
+    @Test
+    public void testBootstrapAndReads() {
+        assertTrue(employeeRepository instanceof InMemoryEmployeeRepository);
+
+        Employee employee = employeeRepository.findByEmployeeId("16a596ae-edd3-4847-99fe-c4518e82c86f");
+        assertNotNull(employee);
+        assertEquals("John", employee.getFirstName());
+
+        ReportingStructure reportingStructure = reportingStructureService.read("16a596ae-edd3-4847-99fe-c4518e82c86f");
+        assertEquals(4, reportingStructure.getNumberOfReports());
+    }
+
+    @Test
+    public void testCompensation() {
+        Compensation compensation = new Compensation();
+        compensation.setEmployee(employeeRepository.findByEmployeeId("b7839309-3348-463b-a7e3-5de1c168beb3"));
+        compensation.setSalary(125000);
+        compensation.setEffectiveDate(new Date());
+        compensationService.create(compensation);
+
+        Compensation read = compensationService.read("b7839309-3348-463b-a7e3-5de1c168beb3");
+        assertEquals(125000, read.getSalary(), 0);
+    }
+
+    @Test
+    public void testEntitiesAreCopied() {
+        InMemoryEmployeeRepository repository = new InMemoryEmployeeRepository();
+        Employee employee = employee("1", "John", "Engineering");
+
+        repository.save(employee);
+        employee.setFirstName("Changed");
+        assertEquals("John", repository.findByEmployeeId("1").getFirstName());
+
+        Employee read = repository.findByEmployeeId("1");
+        read.setFirstName("Changed");
+        assertEquals("John", repository.findByEmployeeId("1").getFirstName());
+        assertNotSame(repository.findByEmployeeId("1"), repository.findByEmployeeId("1"));
+
+        try (Stream<Employee> exported = repository.streamAllBy()) {
+            exported.forEach(e -> e.setFirstName("Changed"));
+        }
+        assertEquals("John", repository.findByEmployeeId("1").getFirstName());
+    }
+
+    @Test
+    public void testSortAndQueryByExample() {
+        InMemoryEmployeeRepository repository = new InMemoryEmployeeRepository();
+        repository.saveAll(Arrays.asList(
+            employee("1", "Paul", "Engineering"),
+            employee("2", "john", "Engineering"),
+            employee("3", "George", "Sales"),
+            employee("4", null, "Engineering")
+        ));
+
+        assertEquals(Arrays.asList("4", "3", "2", "1"),
+            ids(repository.findAll(Sort.by(Sort.Order.by("firstName").ignoreCase()))));
+        assertEquals(Arrays.asList("3", "1", "2", "4"),
+            ids(repository.findAll(Sort.by(Sort.Direction.DESC, "department").and(Sort.by("employeeId")))));
+
+        Example<Employee> engineering = Example.of(employee(null, null, "Engineering"));
+        assertEquals(3, repository.count(engineering));
+        assertEquals(Arrays.asList("1", "2", "4"), ids(repository.findAll(engineering, Sort.by("employeeId"))));
+
+        Example<Employee> startingWithJ = Example.of(employee(null, "J", null),
+            ExampleMatcher.matching().withStringMatcher(ExampleMatcher.StringMatcher.STARTING).withIgnoreCase());
+        assertEquals("2", repository.findOne(startingWithJ).get().getEmployeeId());
+
+        Example<Employee> salesOrPaul = Example.of(employee(null, "Paul", "Sales"), ExampleMatcher.matchingAny());
+        assertEquals(Arrays.asList("1", "3"), ids(repository.findAll(salesOrPaul, Sort.by("employeeId"))));
+
+        assertFalse(repository.exists(Example.of(employee(null, "Ringo", null))));
+    }
+
+    private static Employee employee(String employeeId, String firstName, String department) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        employee.setFirstName(firstName);
+        employee.setDepartment(department);
+        return employee;
+    }
+
+    private static List<String> ids(List<Employee> employees) {
+        return employees.stream().map(Employee::getEmployeeId).collect(Collectors.toList());
+    }
+}
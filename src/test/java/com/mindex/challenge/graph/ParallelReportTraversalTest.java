@@ -0,0 +1,96 @@
+package com.mindex.challenge.graph;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelReportTraversalTest {
+
+    // Default reporting.parallel.threshold, the smallest graph traversed in parallel
+    private static final int SIZE = 4096;
+
+    private ForkJoinPool pool;
+
+    @Before
+    public void setup() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @After
+    public void teardown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testBalancedOrgsSplit() {
+        for (int fanOut : new int[]{2, 8, 50}) {
+            int[][] reports = balanced(SIZE, fanOut);
+            ParallelReportTraversal traversal = new ParallelReportTraversal(reports, allKnown(SIZE), ids(SIZE), SIZE);
+
+            assertEquals(SIZE - 1, traversal.count(0, pool));
+            assertTrue("No forks at fan-out " + fanOut, traversal.forks() > 0);
+        }
+    }
+
+    @Test
+    public void testChainDoesNotSplit() {
+        int[][] reports = new int[SIZE][];
+        for (int i = 0; i < SIZE; i++) {
+            reports[i] = i + 1 < SIZE ? new int[]{i + 1} : new int[0];
+        }
+        ParallelReportTraversal traversal = new ParallelReportTraversal(reports, allKnown(SIZE), ids(SIZE), SIZE);
+
+        assertEquals(SIZE - 1, traversal.count(0, pool));
+        assertEquals(0, traversal.forks());
+    }
+
+    @Test
+    public void testLoopsAreCountedOnce() {
+        int[][] reports = balanced(SIZE, 8);
+        // Every leaf reports back to the root
+        for (int i = 0; i < SIZE; i++) {
+            if (reports[i].length == 0) {
+                reports[i] = new int[]{0};
+            }
+        }
+        ParallelReportTraversal traversal = new ParallelReportTraversal(reports, allKnown(SIZE), ids(SIZE), SIZE);
+
+        assertEquals(SIZE - 1, traversal.count(0, pool));
+    }
+
+    /**
+     * @return Org where node i manages nodes i * fanOut + 1 to i * fanOut + fanOut
+     */
+    private static int[][] balanced(int size, int fanOut) {
+        int[][] reports = new int[size][];
+        for (int i = 0; i < size; i++) {
+            int first = Math.min(size, i * fanOut + 1);
+            int last = Math.min(size, i * fanOut + fanOut + 1);
+            reports[i] = new int[last - first];
+            for (int j = first; j < last; j++) {
+                reports[i][j - first] = j;
+            }
+        }
+        return reports;
+    }
+
+    private static BitSet allKnown(int size) {
+        BitSet known = new BitSet(size);
+        known.set(0, size);
+        return known;
+    }
+
+    private static String[] ids(int size) {
+        String[] ids = new String[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = Integer.toString(i);
+        }
+        return ids;
+    }
+}
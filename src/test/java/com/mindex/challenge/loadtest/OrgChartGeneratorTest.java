@@ -0,0 +1,85 @@
+package com.mindex.challenge.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.data.Employee;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class OrgChartGeneratorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testTree() throws IOException {
+        List<Employee> employees = read(new OrgChartGenerator(1000, 4, 8, 0, 0, 42L));
+        assertEquals(1000, employees.size());
+
+        // Every employee but the root is the direct report of exactly one manager
+        Map<String, Integer> managerCounts = managerCounts(employees);
+        assertEquals(999, managerCounts.size());
+        assertFalse(managerCounts.containsKey(employees.get(0).getEmployeeId()));
+        for (Employee employee : employees.subList(1, employees.size())) {
+            assertEquals(Integer.valueOf(1), managerCounts.get(employee.getEmployeeId()));
+        }
+    }
+
+    @Test
+    public void testCyclesAndDangling() throws IOException {
+        List<Employee> employees = read(new OrgChartGenerator(1000, 4, 8, 5, 3, 42L));
+        Map<String, Integer> managerCounts = managerCounts(employees);
+
+        int extraReports = 0;
+        int dangling = 0;
+        for (Map.Entry<String, Integer> entry : managerCounts.entrySet()) {
+            extraReports += entry.getValue();
+            if (entry.getKey().startsWith("dangling-")) {
+                dangling++;
+            }
+        }
+        assertEquals(999 + 5 + 3, extraReports);
+        assertEquals(3, dangling);
+    }
+
+    @Test
+    public void testDeterministic() throws IOException {
+        assertArrayEquals(write(new OrgChartGenerator(500, 3, 10, 2, 2, 7L), true),
+            write(new OrgChartGenerator(500, 3, 10, 2, 2, 7L), true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooShallow() {
+        new OrgChartGenerator(1000, 2, 3, 0, 0, 1L);
+    }
+
+    private List<Employee> read(OrgChartGenerator generator) throws IOException {
+        return Arrays.asList(objectMapper.readValue(write(generator, false), Employee[].class));
+    }
+
+    private static byte[] write(OrgChartGenerator generator, boolean ndjson) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        generator.write(outputStream, ndjson);
+        return outputStream.toByteArray();
+    }
+
+    private static Map<String, Integer> managerCounts(List<Employee> employees) {
+        Map<String, Integer> managerCounts = new HashMap<String, Integer>();
+        for (Employee employee : employees) {
+            if (employee.getDirectReports() != null) {
+                for (Employee dReport : employee.getDirectReports()) {
+                    managerCounts.merge(dReport.getEmployeeId(), 1, Integer::sum);
+                }
+            }
+        }
+        return managerCounts;
+    }
+}
@@ -0,0 +1,51 @@
+package com.mindex.challenge.metrics;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class PrometheusEndpointTest {
+
+    private String employeeIdUrl;
+    private String reportingStructureIdUrl;
+    private String prometheusUrl;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Before
+    public void setup() {
+        employeeIdUrl = "http://localhost:" + port + "/employee/{id}";
+        reportingStructureIdUrl = "http://localhost:" + port + "/reportingStructure/{id}";
+        prometheusUrl = "http://localhost:" + port + "/actuator/prometheus";
+    }
+
+    @Test
+    public void testServiceMetricsAreScraped() {
+        restTemplate.getForEntity(employeeIdUrl, Employee.class, "b7839309-3348-463b-a7e3-5de1c168beb3");
+        restTemplate.getForEntity(reportingStructureIdUrl, ReportingStructure.class, "16a596ae-edd3-4847-99fe-c4518e82c86f");
+
+        String scrape = restTemplate.getForObject(prometheusUrl, String.class);
+        assertTrue(scrape.contains("employee_read_seconds_count"));
+        assertTrue(Pattern.compile("employee_read_seconds\\{[^}]*quantile=\"0.99\"").matcher(scrape).find());
+        assertTrue(scrape.contains("reporting_read_seconds_count"));
+        assertTrue(scrape.contains("repository_calls_per_request_count"));
+        assertTrue(scrape.contains("reporting_traversal_nodes_last"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.mindex.challenge.reactive;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.main.web-application-type=reactive"
+)
+public class ReactiveApiTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    public void testEmployeeCreateRead() {
+        Employee testEmployee = new Employee();
+        testEmployee.setFirstName("John");
+        testEmployee.setLastName("Doe");
+        testEmployee.setDepartment("Engineering");
+        testEmployee.setPosition("Developer");
+
+        Employee createdEmployee = webTestClient.post().uri("/employee").bodyValue(testEmployee)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(Employee.class).returnResult().getResponseBody();
+        assertNotNull(createdEmployee.getEmployeeId());
+
+        Employee readEmployee = webTestClient.get().uri("/employee/{id}", createdEmployee.getEmployeeId())
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(Employee.class).returnResult().getResponseBody();
+        assertEquals("Doe", readEmployee.getLastName());
+    }
+
+    @Test
+    public void testEmployeeUpdate() {
+        Employee testEmployee = new Employee();
+        testEmployee.setFirstName("Jane");
+        testEmployee.setLastName("Doe");
+
+        Employee createdEmployee = webTestClient.post().uri("/employee").bodyValue(testEmployee)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(Employee.class).returnResult().getResponseBody();
+        assertEquals(Long.valueOf(0), createdEmployee.getVersion());
+
+        createdEmployee.setPosition("Manager");
+        Employee updatedEmployee = webTestClient.put().uri("/employee/{id}", createdEmployee.getEmployeeId())
+            .bodyValue(createdEmployee)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(Employee.class).returnResult().getResponseBody();
+        assertEquals(Long.valueOf(1), updatedEmployee.getVersion());
+        assertEquals("Manager", updatedEmployee.getPosition());
+        assertEquals("Jane", updatedEmployee.getFirstName());
+
+        updatedEmployee = webTestClient.put().uri("/employee/{id}", createdEmployee.getEmployeeId())
+            .bodyValue(createdEmployee)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(Employee.class).returnResult().getResponseBody();
+        assertEquals(Long.valueOf(2), updatedEmployee.getVersion());
+    }
+
+    @Test
+    public void testReportingStructureRead() {
+        ReportingStructure reportingStructure = webTestClient.get()
+            .uri("/reportingStructure/{id}", "16a596ae-edd3-4847-99fe-c4518e82c86f")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(ReportingStructure.class).returnResult().getResponseBody();
+        assertEquals(4, reportingStructure.getNumberOfReports());
+
+        webTestClient.get().uri("/reportingStructure/{id}", "invalid-employee")
+            .exchange()
+            .expectStatus().is5xxServerError();
+    }
+
+    @Test
+    public void testCompensationCreateRead() {
+        Employee employee = new Employee();
+        employee.setEmployeeId("03aa1462-ffa9-4978-901b-7c001562cf6f");
+        Compensation compensation = new Compensation();
+        compensation.setEmployee(employee);
+        compensation.setSalary(125000);
+        compensation.setEffectiveDate(new Date());
+
+        webTestClient.post().uri("/compensation").bodyValue(compensation)
+            .exchange()
+            .expectStatus().isOk();
+
+        Compensation readCompensation = webTestClient.get().uri("/compensation/{id}", employee.getEmployeeId())
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(Compensation.class).returnResult().getResponseBody();
+        assertEquals(125000, readCompensation.getSalary(), 0);
+        assertEquals("Ringo", readCompensation.getEmployee().getFirstName());
+    }
+}
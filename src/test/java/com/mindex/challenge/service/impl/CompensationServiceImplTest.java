@@ -1,5 +1,6 @@
 package com.mindex.challenge.service.impl;
 
+import com.mindex.challenge.data.BatchResult;
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.Employee;
 import com.mindex.challenge.service.CompensationService;
@@ -10,6 +11,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -17,6 +21,7 @@ import java.util.Date;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -24,6 +29,9 @@ public class CompensationServiceImplTest {
 
     private String compensationUrl;
     private String compensationIdUrl;
+    private String compensationAsOfUrl;
+    private String compensationHistoryUrl;
+    private String compensationBatchUrl;
 
     @Autowired
     private CompensationService compensationService;
@@ -38,6 +46,9 @@ public class CompensationServiceImplTest {
     public void setup() {
         compensationUrl = "http://localhost:" + port + "/compensation";
         compensationIdUrl = "http://localhost:" + port + "/compensation/{id}";
+        compensationAsOfUrl = compensationIdUrl + "?asOf={asOf}";
+        compensationHistoryUrl = compensationIdUrl + "/history";
+        compensationBatchUrl = compensationUrl + "/batch";
     }
 
     @Test
@@ -122,20 +133,23 @@ public class CompensationServiceImplTest {
         }};
 
         // Setup by creating compensation
-        restTemplate.postForEntity(
+        Compensation createdCompensation = restTemplate.postForEntity(
             compensationUrl,
             testCompensation, 
             Compensation.class
-        );
+        ).getBody();
 
         // Read
-        Compensation readCompensation = restTemplate.getForEntity(
+        ResponseEntity<Compensation> response = restTemplate.getForEntity(
             compensationIdUrl, 
             Compensation.class,
             employeeId
-        ).getBody();
+        );
+        Compensation readCompensation = response.getBody();
         assertNotNull(readCompensation.getEmployee());
         assertCompensationEquivalence(testCompensation, readCompensation);
+        assertEquals(createdCompensation.getVersion(), readCompensation.getVersion());
+        assertTrue(response.getHeaders().getETag().matches("\"[0-9a-f]+-" + createdCompensation.getVersion() + "-0\""));
     }
 
     @Test
@@ -216,6 +230,100 @@ public class CompensationServiceImplTest {
         assertCompensationEquivalence(secondCompensation, readCompensation);
     }
 
+    @Test
+    @DirtiesContext
+    /**
+     * Test reading the compensation history and the compensation in effect on
+     * a date for an employee with multiple compensations
+     */
+    public void readHistoryAndAsOf() {
+        String employeeId = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+        Compensation firstCompensation = new Compensation() {{
+            setEmployee(new Employee() {{ setEmployeeId(employeeId); }});
+            setSalary(125000);
+            setEffectiveDate(new Date(109, 11, 15));
+        }};
+        Compensation secondCompensation = new Compensation() {{
+            setEmployee(new Employee() {{ setEmployeeId(employeeId); }});
+            setSalary(150000);
+            setEffectiveDate(new Date(113, 11, 15));
+        }};
+
+        // Setup by creating compensations, newest first
+        restTemplate.postForEntity(
+            compensationUrl,
+            secondCompensation,
+            Compensation.class
+        );
+        restTemplate.postForEntity(
+            compensationUrl,
+            firstCompensation,
+            Compensation.class
+        );
+
+        // Read history
+        Compensation[] history = restTemplate.getForEntity(
+            compensationHistoryUrl,
+            Compensation[].class,
+            employeeId
+        ).getBody();
+        assertEquals(2, history.length);
+        assertCompensationEquivalence(firstCompensation, history[0]);
+        assertCompensationEquivalence(secondCompensation, history[1]);
+
+        // Read as of a date between both compensations
+        Compensation readCompensation = restTemplate.getForEntity(
+            compensationAsOfUrl,
+            Compensation.class,
+            employeeId,
+            "2012-01-01"
+        ).getBody();
+        assertCompensationEquivalence(firstCompensation, readCompensation);
+
+        // Read as of a date before both compensations
+        ResponseEntity<Compensation> response = restTemplate.getForEntity(
+            compensationAsOfUrl,
+            Compensation.class,
+            employeeId,
+            "2000-01-01"
+        );
+        assertEquals(500, response.getStatusCodeValue());
+    }
+
+    @Test
+    @DirtiesContext
+    /**
+     * Test creating compensations in a batch of newline-delimited JSON, where
+     * one compensation is for an invalid employee
+     */
+    public void createBatchWithInvalidEmployee() {
+        String employeeId = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+        String body =
+            "{\"employee\": {\"employeeId\": \"" + employeeId + "\"}, \"salary\": 125000, \"effectiveDate\": 1260835200000}\n"
+            + "{\"employee\": {\"employeeId\": \"invalid-employee\"}, \"salary\": 125000, \"effectiveDate\": 1260835200000}\n"
+            + "{\"employee\": {\"employeeId\": \"" + employeeId + "\"}, \"salary\": 150000, \"effectiveDate\": 1386892800000}\n";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+
+        BatchResult result = restTemplate.postForEntity(
+            compensationBatchUrl,
+            new HttpEntity<String>(body, headers),
+            BatchResult.class
+        ).getBody();
+        assertEquals(3, result.getReceived());
+        assertEquals(2, result.getWritten());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+
+        Compensation readCompensation = restTemplate.getForEntity(
+            compensationIdUrl,
+            Compensation.class,
+            employeeId
+        ).getBody();
+        assertEquals(150000, readCompensation.getSalary(), 1e-15);
+    }
+
     /**
      * Helper method to assert the two Compensation instances match
      * @param expected
@@ -1,5 +1,6 @@
 package com.mindex.challenge.service.impl;
 
+import com.mindex.challenge.data.BatchResult;
 import com.mindex.challenge.data.Employee;
 import com.mindex.challenge.service.EmployeeService;
 import org.junit.Before;
@@ -13,10 +14,12 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -24,6 +27,8 @@ public class EmployeeServiceImplTest {
 
     private String employeeUrl;
     private String employeeIdUrl;
+    private String employeeImportUrl;
+    private String employeeExportUrl;
 
     @Autowired
     private EmployeeService employeeService;
@@ -38,6 +43,8 @@ public class EmployeeServiceImplTest {
     public void setup() {
         employeeUrl = "http://localhost:" + port + "/employee";
         employeeIdUrl = "http://localhost:" + port + "/employee/{id}";
+        employeeImportUrl = employeeUrl + "/import";
+        employeeExportUrl = employeeUrl + "/export";
     }
 
     @Test
@@ -75,6 +82,81 @@ public class EmployeeServiceImplTest {
                         readEmployee.getEmployeeId()).getBody();
 
         assertEmployeeEquivalence(readEmployee, updatedEmployee);
+
+
+        // Read after update checks
+        Employee rereadEmployee = restTemplate.getForEntity(employeeIdUrl, Employee.class, createdEmployee.getEmployeeId()).getBody();
+        assertEmployeeEquivalence(updatedEmployee, rereadEmployee);
+    }
+
+    @Test
+    public void testConditionalRead() {
+        Employee testEmployee = new Employee();
+        testEmployee.setFirstName("Jane");
+        testEmployee.setLastName("Doe");
+
+        Employee createdEmployee = restTemplate.postForEntity(employeeUrl, testEmployee, Employee.class).getBody();
+        assertEquals(Long.valueOf(0), createdEmployee.getVersion());
+
+        // Tags are qualified with the process epoch, so they do not repeat after a restart
+        ResponseEntity<Employee> response = readIfNoneMatch(createdEmployee.getEmployeeId(), null);
+        String eTag = response.getHeaders().getETag();
+        assertTrue(eTag.matches("\"[0-9a-f]+-0\""));
+        assertEquals(304, readIfNoneMatch(createdEmployee.getEmployeeId(), eTag).getStatusCodeValue());
+
+        // Update bumps the version, so the old ETag no longer matches
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        Employee updatedEmployee = restTemplate.exchange(employeeIdUrl,
+            HttpMethod.PUT,
+            new HttpEntity<Employee>(response.getBody(), headers),
+            Employee.class,
+            createdEmployee.getEmployeeId()).getBody();
+        assertEquals(Long.valueOf(1), updatedEmployee.getVersion());
+
+        response = readIfNoneMatch(createdEmployee.getEmployeeId(), eTag);
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(eTag.replace("-0\"", "-1\""), response.getHeaders().getETag());
+        assertEquals(Long.valueOf(1), response.getBody().getVersion());
+    }
+
+    @Test
+    public void testImportExport() {
+        String body =
+            "{\"employeeId\": \"import-1\", \"firstName\": \"Jane\", \"directReports\": [{\"employeeId\": \"import-2\"}]}\n"
+            + "{\"employeeId\": \"import-2\", \"firstName\": \"Jim\"}\n"
+            + "{\"firstName\": \"Missing\"}\n";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+
+        // Import checks
+        BatchResult result = restTemplate.postForEntity(
+            employeeImportUrl,
+            new HttpEntity<String>(body, headers),
+            BatchResult.class
+        ).getBody();
+        assertEquals(3, result.getReceived());
+        assertEquals(2, result.getWritten());
+        assertEquals(2, result.getErrors().get(0).getIndex());
+
+        Employee readEmployee = restTemplate.getForEntity(employeeIdUrl, Employee.class, "import-1").getBody();
+        assertEquals("Jane", readEmployee.getFirstName());
+        assertEquals("import-2", readEmployee.getDirectReports().get(0).getEmployeeId());
+
+
+        // Export checks
+        String export = restTemplate.getForEntity(employeeExportUrl, String.class).getBody();
+        assertTrue(export.contains("\"employeeId\":\"import-1\""));
+        assertTrue(export.contains("\"employeeId\":\"16a596ae-edd3-4847-99fe-c4518e82c86f\""));
+    }
+
+    private ResponseEntity<Employee> readIfNoneMatch(String id, String eTag) {
+        HttpHeaders headers = new HttpHeaders();
+        if (eTag != null) {
+            headers.setIfNoneMatch(eTag);
+        }
+        return restTemplate.exchange(employeeIdUrl, HttpMethod.GET, new HttpEntity<Void>(headers), Employee.class, id);
     }
 
     private static void assertEmployeeEquivalence(Employee expected, Employee actual) {
@@ -1,29 +1,58 @@
 package com.mindex.challenge.service.impl;
 
+import com.mindex.challenge.cache.EmployeeCache;
 import com.mindex.challenge.data.Employee;
 import com.mindex.challenge.data.ReportingStructure;
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.graph.OrgGraph;
 import com.mindex.challenge.service.ReportingStructureService;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.invocation.Invocation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.reset;
 
 @RunWith(SpringRunner.class)
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "reporting.parallel.threshold=1"
+)
 public class ReportingStructureServiceImplTest {
 
     private String reportingStructureUrl;
+    private String parallelReportingStructureUrl;
+    private String reportingTreeUrl;
+    private String reportingStructureBatchUrl;
 
     @MockBean
     private EmployeeRepository employeeRepository;
@@ -31,15 +60,29 @@ public class ReportingStructureServiceImplTest {
     @Autowired
     private ReportingStructureService reportingStructureService;
 
+    @Autowired
+    private OrgGraph orgGraph;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
     @LocalServerPort
     private int port;
 
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @After
+    public void teardown() {
+        useStrategy(ReportCountStrategy.GRAPH);
+    }
+
     @Before
     public void setup() {
         reportingStructureUrl = "http://localhost:" + port + "/reportingStructure/{id}";
+        parallelReportingStructureUrl = reportingStructureUrl + "?parallel=true";
+        reportingTreeUrl = reportingStructureUrl + "/tree?depth={depth}";
+        reportingStructureBatchUrl = "http://localhost:" + port + "/reportingStructure/batch";
     }
 
     @Test
@@ -125,17 +168,451 @@ public class ReportingStructureServiceImplTest {
         assertEquals(0, readReportingStructure.getNumberOfReports());
     }
 
+    @Test
+    /**
+     * Test that reading a report structure with a parallel traversal returns a
+     * report count of 5 when given the following employee structure, where F
+     * reports back to A.
+     *       A (Root) <-
+     *       /     \    \
+     *      B _   _ C   |
+     *     /   \ /   \  |
+     *    D     E     F-
+     */
+    public void readInParallelWhenReportsLoop() {
+        String testEmployeeId = setupEmployees(new int[][]{{1, 2}, {3, 4}, {4, 5}, {}, {}, {0}});
+        ReportingStructure readReportingStructure = restTemplate.getForEntity(
+            parallelReportingStructureUrl,
+            ReportingStructure.class,
+            testEmployeeId
+        ).getBody();
+        assertEquals(5, readReportingStructure.getNumberOfReports());
+    }
+
+    @Test
+    /**
+     * Test that every strategy counts a report shared by two managers once.
+     *       A (Root)
+     *       /     \
+     *      B _   _ C
+     *     /   \ /   \
+     *    D     E     F
+     */
+    public void readWithEachStrategyWhenMultipleEmployeesHaveSameReport() {
+        for (ReportCountStrategy strategy : ReportCountStrategy.values()) {
+            useStrategy(strategy);
+            String testEmployeeId = setupEmployees(new int[][]{{1, 2}, {3, 4}, {4, 5}, {}, {}, {}});
+            ReportingStructure readReportingStructure = restTemplate.getForEntity(
+                reportingStructureUrl,
+                ReportingStructure.class,
+                testEmployeeId
+            ).getBody();
+            assertEquals(strategy.name(), 5, readReportingStructure.getNumberOfReports());
+        }
+    }
+
+    @Test
+    /**
+     * Test that every strategy stops at employees already counted when
+     * reports loop, whether back to the root or to the employee itself.
+     *       A (Root) <-
+     *       /     \    \
+     *      B _   _ C   |
+     *     /   \ /   \  |
+     *    D     E     F-
+     */
+    public void readWithEachStrategyWhenReportsLoop() {
+        for (ReportCountStrategy strategy : ReportCountStrategy.values()) {
+            useStrategy(strategy);
+            String testEmployeeId = setupEmployees(new int[][]{{1, 2}, {3, 4}, {4, 5}, {}, {}, {0}});
+            ReportingStructure readReportingStructure = restTemplate.getForEntity(
+                reportingStructureUrl,
+                ReportingStructure.class,
+                testEmployeeId
+            ).getBody();
+            assertEquals(strategy.name(), 5, readReportingStructure.getNumberOfReports());
+
+            testEmployeeId = setupEmployees(new int[][]{{0}});
+            readReportingStructure = restTemplate.getForEntity(
+                reportingStructureUrl,
+                ReportingStructure.class,
+                testEmployeeId
+            ).getBody();
+            assertEquals(strategy.name(), 0, readReportingStructure.getNumberOfReports());
+        }
+    }
+
+    @Test
+    /**
+     * Test that every strategy fails when given an invalid employee, or an
+     * employee with a direct report that does not exist.
+     */
+    public void failWithEachStrategyWhenEmployeeDoesNotExist() {
+        for (ReportCountStrategy strategy : ReportCountStrategy.values()) {
+            useStrategy(strategy);
+            String testEmployeeId = setupEmployees(new int[][]{{1, 2}, {}});
+            ResponseEntity<ReportingStructure> response = restTemplate.getForEntity(
+                reportingStructureUrl,
+                ReportingStructure.class,
+                "invalid-employee"
+            );
+            assertEquals(strategy.name(), 500, response.getStatusCodeValue());
+
+            response = restTemplate.getForEntity(
+                reportingStructureUrl,
+                ReportingStructure.class,
+                testEmployeeId
+            );
+            assertEquals(strategy.name(), 500, response.getStatusCodeValue());
+        }
+    }
+
+    @Test
+    /**
+     * Test that reading a report structure reflects a change to the
+     * direct reports of an employee below the one being read.
+     *       A (Root)              A (Root)
+     *       /     \              /     \
+     *      B       C     =>     B       C
+     *                                  / \
+     *                                 D   E
+     */
+    public void readAfterReportsChange() {
+        String testEmployeeId = setupEmployees(new int[][]{{1, 2}, {}, {}, {}, {}});
+        ReportingStructure readReportingStructure = restTemplate.getForEntity(
+            reportingStructureUrl,
+            ReportingStructure.class,
+            testEmployeeId
+        ).getBody();
+        assertEquals(2, readReportingStructure.getNumberOfReports());
+
+        Employee updatedEmployee = new Employee();
+        updatedEmployee.setEmployeeId("2");
+        updatedEmployee.setDirectReports(
+            new LinkedList<Employee>() {{
+                add(new Employee(){{ setEmployeeId("3"); }});
+                add(new Employee(){{ setEmployeeId("4"); }});
+            }}
+        );
+        orgGraph.put(updatedEmployee);
+
+        readReportingStructure = restTemplate.getForEntity(
+            reportingStructureUrl,
+            ReportingStructure.class,
+            testEmployeeId
+        ).getBody();
+        assertEquals(4, readReportingStructure.getNumberOfReports());
+    }
+
+    @Test
+    /**
+     * Test that changing an employee without changing its direct reports keeps
+     * the stored counts up the chain, and still changes the ETags up the chain.
+     *       A (Root)
+     *       /     \
+     *      B       C
+     *     /
+     *    D
+     */
+    public void keepCountsWhenOnlyDetailsChange() {
+        String testEmployeeId = setupEmployees(new int[][]{{1, 2}, {3}, {}, {}});
+        ResponseEntity<ReportingStructure> response = restTemplate.getForEntity(
+            reportingStructureUrl,
+            ReportingStructure.class,
+            testEmployeeId
+        );
+        assertEquals(3, response.getBody().getNumberOfReports());
+        String rootETag = response.getHeaders().getETag();
+
+        Employee updatedEmployee = new Employee();
+        updatedEmployee.setEmployeeId("1");
+        updatedEmployee.setFirstName("Renamed");
+        updatedEmployee.setDirectReports(
+            new LinkedList<Employee>() {{
+                add(new Employee(){{ setEmployeeId("3"); }});
+            }}
+        );
+        orgGraph.put(updatedEmployee);
+
+        assertTrue(orgGraph.isCounted(testEmployeeId));
+        assertNotEquals(rootETag, readIfNoneMatch(testEmployeeId, rootETag).getHeaders().getETag());
+
+        updatedEmployee.setDirectReports(new LinkedList<Employee>());
+        orgGraph.put(updatedEmployee);
+
+        assertFalse(orgGraph.isCounted(testEmployeeId));
+        assertEquals(2, restTemplate.getForEntity(reportingStructureUrl, ReportingStructure.class, testEmployeeId)
+            .getBody().getNumberOfReports());
+    }
+
+    @Test
+    /**
+     * Test that the ETag of a reporting structure changes with a change below
+     * the employee, and only then, and that a matching If-None-Match returns 304.
+     *       A (Root)              A (Root)
+     *       /     \              /     \
+     *      B       C     =>     B       C
+     *                                  / \
+     *                                 D   E
+     */
+    public void readNotModifiedUntilReportsChange() {
+        String testEmployeeId = setupEmployees(new int[][]{{1, 2}, {}, {}, {}, {}});
+        String rootETag = restTemplate.getForEntity(reportingStructureUrl, ReportingStructure.class, testEmployeeId)
+            .getHeaders().getETag();
+        String siblingETag = restTemplate.getForEntity(reportingStructureUrl, ReportingStructure.class, "1")
+            .getHeaders().getETag();
+        assertEquals(304, readIfNoneMatch(testEmployeeId, rootETag).getStatusCodeValue());
+
+        Employee updatedEmployee = new Employee();
+        updatedEmployee.setEmployeeId("2");
+        updatedEmployee.setDirectReports(
+            new LinkedList<Employee>() {{
+                add(new Employee(){{ setEmployeeId("3"); }});
+                add(new Employee(){{ setEmployeeId("4"); }});
+            }}
+        );
+        orgGraph.put(updatedEmployee);
+
+        ResponseEntity<ReportingStructure> response = readIfNoneMatch(testEmployeeId, rootETag);
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(4, response.getBody().getNumberOfReports());
+        assertNotEquals(rootETag, response.getHeaders().getETag());
+        assertEquals(304, readIfNoneMatch("1", siblingETag).getStatusCodeValue());
+    }
+
+    @Test
+    /**
+     * Test that reading reporting structures in a batch returns them in request
+     * order, with invalid employees included in place.
+     *       A (Root)
+     *       /     \
+     *      B _     C
+     *     /   \     \
+     *    D     E     F
+     */
+    public void readBatch() {
+        setupEmployees(new int[][]{{1, 2}, {3, 4}, {5}, {}, {}, {}});
+        ReportingStructure[] readReportingStructures = restTemplate.postForEntity(
+            reportingStructureBatchUrl,
+            new String[]{"2", "invalid-employee", "0", "1"},
+            ReportingStructure[].class
+        ).getBody();
+        assertEquals(4, readReportingStructures.length);
+        assertEquals("2", readReportingStructures[0].getEmployee().getEmployeeId());
+        assertEquals(1, readReportingStructures[0].getNumberOfReports());
+        assertEquals("invalid-employee", readReportingStructures[1].getEmployee().getEmployeeId());
+        assertEquals(5, readReportingStructures[2].getNumberOfReports());
+        assertEquals(2, readReportingStructures[3].getNumberOfReports());
+    }
+
+    @Test
+    /**
+     * Test that a batch where one employee is under another loads every
+     * employee once, and still counts both in full.
+     *       A (Root)
+     *       /     \
+     *      B _     C
+     *     /   \     \
+     *    D     E     F
+     */
+    public void readBatchWhenEmployeeIsUnderAnother() {
+        setupEmployees(new int[][]{{1, 2}, {3, 4}, {5}, {}, {}, {}});
+        useStrategy(ReportCountStrategy.BATCHED);
+        ReportingStructure[] readReportingStructures = restTemplate.postForEntity(
+            reportingStructureBatchUrl,
+            new String[]{"0", "1"},
+            ReportingStructure[].class
+        ).getBody();
+        assertEquals(5, readReportingStructures[0].getNumberOfReports());
+        assertEquals(2, readReportingStructures[1].getNumberOfReports());
+
+        List<String> fetched = new LinkedList<String>();
+        for (Invocation invocation : mockingDetails(employeeRepository).getInvocations()) {
+            if (invocation.getMethod().getName().equals("findByEmployeeIdIn")) {
+                fetched.addAll(invocation.<Collection<String>>getArgument(0));
+            }
+        }
+        assertEquals(6, fetched.size());
+        assertEquals(6, new HashSet<String>(fetched).size());
+    }
+
+    @Test
+    /**
+     * Test that when loading one batch of a batch request fails, each of its
+     * employees is returned with an error and the other batches are still returned.
+     *       A (Root)
+     *       /     \
+     *      B _     C
+     *     /   \     \
+     *    D     E     F
+     */
+    public void readBatchWhenLookupFails() {
+        setupEmployees(new int[][]{{1, 2}, {3, 4}, {5}, {}, {}, {}});
+        willThrow(new RuntimeException("Lookup failed")).given(employeeRepository)
+            .findByEmployeeIdIn(argThat(ids -> ids.contains("1")));
+        ReportingStructureServiceImpl target = AopTestUtils.getTargetObject(reportingStructureService);
+        Object batchSize = ReflectionTestUtils.getField(target, "batchSize");
+        ReflectionTestUtils.setField(target, "batchSize", 1);
+        try {
+            ResponseEntity<String> response = restTemplate.postForEntity(
+                reportingStructureBatchUrl,
+                new String[]{"0", "1", "2"},
+                String.class
+            );
+            assertEquals(200, response.getStatusCodeValue());
+            assertTrue(response.getBody().contains("Lookup failed"));
+
+            ReportingStructure[] readReportingStructures = restTemplate.postForEntity(
+                reportingStructureBatchUrl,
+                new String[]{"0", "1", "2"},
+                ReportingStructure[].class
+            ).getBody();
+            assertEquals(3, readReportingStructures.length);
+            assertEquals(5, readReportingStructures[0].getNumberOfReports());
+            assertEquals("1", readReportingStructures[1].getEmployee().getEmployeeId());
+            assertNull(readReportingStructures[1].getEmployee().getFirstName());
+            assertEquals(1, readReportingStructures[2].getNumberOfReports());
+        } finally {
+            ReflectionTestUtils.setField(target, "batchSize", batchSize);
+        }
+    }
+
+    @Test
+    /**
+     * Test that reading a reporting tree expands every report, and that an
+     * employee reporting back to someone above them is returned as a stub.
+     *       A (Root) <-
+     *       /     \    \
+     *      B       C   |
+     *     /         \  |
+     *    D           F-
+     */
+    public void readTreeWhenReportsLoop() {
+        String testEmployeeId = setupEmployees(new int[][]{{1, 2}, {3}, {4}, {}, {0}});
+        Employee root = restTemplate.getForEntity(
+            reportingTreeUrl,
+            Employee.class,
+            testEmployeeId,
+            -1
+        ).getBody();
+        assertEquals("0", root.getEmployeeId());
+        assertEquals("1", root.getDirectReports().get(0).getEmployeeId());
+        assertEquals("3", root.getDirectReports().get(0).getDirectReports().get(0).getEmployeeId());
+        Employee f = root.getDirectReports().get(1).getDirectReports().get(0);
+        assertEquals("4", f.getEmployeeId());
+        assertEquals("First4", f.getFirstName());
+        assertEquals("0", f.getDirectReports().get(0).getEmployeeId());
+        assertNull(f.getDirectReports().get(0).getFirstName());
+    }
+
+    @Test
+    /**
+     * Test that a report shared by two managers is expanded under the first
+     * one only, and returned as a stub under the second.
+     *       A (Root)
+     *       /     \
+     *      B _   _ C
+     *     /   \ /   \
+     *    D     E     F
+     */
+    public void readTreeWhenMultipleEmployeesHaveSameReport() {
+        String testEmployeeId = setupEmployees(new int[][]{{1, 2}, {3, 4}, {4, 5}, {}, {}, {}});
+        Employee root = restTemplate.getForEntity(
+            reportingTreeUrl,
+            Employee.class,
+            testEmployeeId,
+            -1
+        ).getBody();
+        assertEquals("First4", root.getDirectReports().get(0).getDirectReports().get(1).getFirstName());
+        Employee c = root.getDirectReports().get(1);
+        assertEquals("4", c.getDirectReports().get(0).getEmployeeId());
+        assertNull(c.getDirectReports().get(0).getFirstName());
+        assertEquals("First5", c.getDirectReports().get(1).getFirstName());
+    }
+
+    @Test
+    /**
+     * Test that reading a reporting tree fails before anything is streamed when given an invalid employee
+     */
+    public void failTreeWhenEmployeeDoesNotExist() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+            reportingTreeUrl,
+            String.class,
+            "invalid-employee",
+            -1
+        );
+        assertEquals(500, response.getStatusCodeValue());
+    }
+
+    @Test
+    /**
+     * Test that a batch with a missing employee ID is rejected before anything is streamed
+     */
+    public void failBatchWhenEmployeeIdIsNull() {
+        ResponseEntity<String> response = restTemplate.postForEntity(
+            reportingStructureBatchUrl,
+            new String[]{"0", null},
+            String.class
+        );
+        assertEquals(400, response.getStatusCodeValue());
+    }
+
+    @Test
+    /**
+     * Test that reading a reporting tree with a depth of 1 only expands
+     * direct reports, and returns their reports as stubs.
+     */
+    public void readTreeWithDepthLimit() {
+        String testEmployeeId = setupEmployees(new int[][]{{1, 2}, {3}, {}, {}});
+        Employee root = restTemplate.getForEntity(
+            reportingTreeUrl,
+            Employee.class,
+            testEmployeeId,
+            1
+        ).getBody();
+        Employee b = root.getDirectReports().get(0);
+        assertEquals("First1", b.getFirstName());
+        assertEquals("3", b.getDirectReports().get(0).getEmployeeId());
+        assertNull(b.getDirectReports().get(0).getFirstName());
+    }
+
+    /**
+     * Switches the strategy of the service under test, which is set back to GRAPH after each test.
+     * @param strategy
+     */
+    private void useStrategy(ReportCountStrategy strategy) {
+        ReportingStructureServiceImpl target = AopTestUtils.getTargetObject(reportingStructureService);
+        ReflectionTestUtils.setField(target, "strategy", strategy);
+    }
+
+    private ResponseEntity<ReportingStructure> readIfNoneMatch(String employeeId, String eTag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        return restTemplate.exchange(
+            reportingStructureUrl,
+            HttpMethod.GET,
+            new HttpEntity<Void>(headers),
+            ReportingStructure.class,
+            employeeId
+        );
+    }
+
     /**
      * A private helper method to set up employees and direct reports for tests.
      * @param directReportAdj
      * @return First created employee Id
      */
     private String setupEmployees(int[][] directReportAdj) {
+        // Drop stubs of an earlier setup in the same test, whose answers would run while stubbing again
+        reset(employeeRepository);
+        List<Employee> employees = new LinkedList<Employee>();
+        Map<String, Employee> employeesById = new HashMap<String, Employee>();
         // Make employees
         for (int i = 0; i < directReportAdj.length; i++) {
             String id = Integer.toString(i);
             Employee e = new Employee();
             e.setEmployeeId(id);
+            e.setFirstName("First" + id);
             int[] dReportAdj = directReportAdj[i];
             e.setDirectReports(
                 new LinkedList<Employee>() {{
@@ -146,7 +623,22 @@ public class ReportingStructureServiceImplTest {
                 }}
             );
             given(employeeRepository.findByEmployeeId(id)).willReturn(e);
+            employees.add(e);
+            employeesById.put(id, e);
         }
+        given(employeeRepository.findByEmployeeIdIn(any())).willAnswer(invocation -> {
+            List<Employee> found = new LinkedList<Employee>();
+            for (String id : invocation.<Collection<String>>getArgument(0)) {
+                if (employeesById.containsKey(id)) {
+                    found.add(employeesById.get(id));
+                }
+            }
+            return found;
+        });
+        // Rebuild org graph and drop cached employees from the mocked repository
+        given(employeeRepository.findAll()).willReturn(employees);
+        orgGraph.reload();
+        employeeCache.invalidateAll();
         return "0";
     }
 }
@@ -0,0 +1,78 @@
+package com.mindex.challenge.snapshot;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.CompensationRecord;
+import com.mindex.challenge.data.Employee;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+    "snapshot.location=${java.io.tmpdir}/snapshot-store-test.snapshot",
+    // Otherwise the snapshot deleted after each test is written again when the context closes
+    "snapshot.on-shutdown=false"
+})
+public class SnapshotStoreTest {
+
+    @Autowired
+    private SnapshotStore snapshotStore;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${snapshot.location}")
+    private String location;
+
+    @After
+    public void teardown() throws Exception {
+        Files.deleteIfExists(Paths.get(location));
+    }
+
+    @Test
+    public void testSnapshotAndRestore() throws Exception {
+        long count = employeeRepository.count();
+
+        snapshotStore.snapshot();
+        assertTrue(Files.exists(Paths.get(location)));
+
+        // Restore only fills empty collections
+        mongoTemplate.dropCollection(Employee.class);
+        mongoTemplate.dropCollection(CompensationRecord.class);
+        assertEquals(0, employeeRepository.count());
+
+        assertTrue(snapshotStore.restore());
+        assertEquals(count, employeeRepository.count());
+
+        Employee employee = employeeRepository.findByEmployeeId("16a596ae-edd3-4847-99fe-c4518e82c86f");
+        assertNotNull(employee);
+        assertEquals("John", employee.getFirstName());
+        assertEquals(2, employee.getDirectReports().size());
+    }
+
+    @Test
+    public void testRestoreSkippedWhenCollectionsHoldDocuments() throws Exception {
+        long count = employeeRepository.count();
+
+        snapshotStore.snapshot();
+
+        assertFalse(snapshotStore.restore());
+        assertEquals(count, employeeRepository.count());
+    }
+}
@@ -0,0 +1,93 @@
+package com.mindex.challenge.tracing;
+
+import com.mindex.challenge.data.Employee;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "tracing.sample-rate=1",
+    "tracing.flush-interval-ms=3600000",
+    "employee.cache.enabled=false"
+})
+public class TracingTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Test
+    public void testRequestSpans() {
+        String employeeIdUrl = "http://localhost:" + port + "/employee/{id}";
+        String employeeId = "b7839309-3348-463b-a7e3-5de1c168beb3";
+
+        // The first request also loads the org graph
+        restTemplate.getForEntity(employeeIdUrl, Employee.class, employeeId);
+        tracer.drain(span -> { });
+
+        restTemplate.getForEntity(employeeIdUrl, Employee.class, employeeId);
+
+        Map<String, Span> spans = new HashMap<String, Span>();
+        tracer.drain(span -> spans.put(span.getName(), span));
+
+        assertEquals(4, spans.size());
+        Span controller = spans.get("EmployeeController.read");
+        Span version = spans.get("EmployeeServiceImpl.readVersionTag");
+        Span service = spans.get("EmployeeServiceImpl.read");
+        Span repository = spans.get("EmployeeRepository.findByEmployeeId");
+
+        assertEquals(Span.Layer.CONTROLLER, controller.getLayer());
+        assertEquals(Span.Layer.SERVICE, version.getLayer());
+        assertEquals(Span.Layer.SERVICE, service.getLayer());
+        assertEquals(Span.Layer.REPOSITORY, repository.getLayer());
+
+        assertEquals(0, controller.getParentId());
+        assertEquals(controller.getSpanId(), version.getParentId());
+        assertEquals(controller.getSpanId(), service.getParentId());
+        assertEquals(service.getSpanId(), repository.getParentId());
+        assertEquals(controller.getTraceId(), repository.getTraceId());
+        assertFalse(controller.isFailed());
+
+        // The trace ends with the request, so the next one on the same request threads starts a new trace
+        restTemplate.getForEntity(employeeIdUrl, Employee.class, employeeId);
+
+        Map<String, Span> nextSpans = new HashMap<String, Span>();
+        tracer.drain(span -> nextSpans.put(span.getName(), span));
+        Span nextController = nextSpans.get("EmployeeController.read");
+
+        assertEquals(0, nextController.getParentId());
+        assertNotEquals(controller.getTraceId(), nextController.getTraceId());
+    }
+
+    @Test
+    public void testRingBufferDropsWhenFull() {
+        SpanRingBuffer buffer = new SpanRingBuffer(4);
+        for (int i = 1; i <= 6; i++) {
+            buffer.offer(new Span(1L, i, 0, Span.Layer.SERVICE, "test", 0, 0, false));
+        }
+        assertEquals(2, buffer.dropped());
+
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, buffer.poll().getSpanId());
+        }
+        assertNull(buffer.poll());
+    }
+}